@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.wire.Wire;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Called for each excerpt read by {@link ExcerptTailer#readBatch(int, BatchHandler)}
+ */
+@FunctionalInterface
+public interface BatchHandler {
+    /**
+     * @param index of the excerpt
+     * @param wire  to read the excerpt from, only valid for the duration of this call.
+     */
+    void onExcerpt(long index, @NotNull Wire wire);
+}
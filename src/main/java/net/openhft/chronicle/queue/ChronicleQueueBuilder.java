@@ -117,7 +117,7 @@ public interface ChronicleQueueBuilder<B extends ChronicleQueueBuilder> extends
     long bufferCapacity();
 
     /**
-     * @param writeBufferMode to use for writes. Only None is available in OSS
+     * @param writeBufferMode to use for writes. None and Asynchronous are available in OSS
      * @return this
      */
     B writeBufferMode(BufferMode writeBufferMode);
@@ -134,7 +134,8 @@ public interface ChronicleQueueBuilder<B extends ChronicleQueueBuilder> extends
     BufferMode readBufferMode();
 
     /**
-     * @param eventLoop to use when asynchronous buffering is used.
+     * @param eventLoop to use for background tasks such as asynchronous buffering, if not set
+     *                  one is created when needed.
      * @return this
      */
     @NotNull
@@ -26,6 +26,7 @@ import net.openhft.chronicle.wire.DocumentContext;
 import net.openhft.chronicle.wire.TextWire;
 
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
@@ -54,7 +55,7 @@ final class ChronicleReader {
                     if (!dc.isPresent()) {
                         if (!tailInputSource)
                             break;
-                        Jvm.pause(50);
+                        tailer.awaitData(50, TimeUnit.MILLISECONDS);
                         continue;
                     }
 
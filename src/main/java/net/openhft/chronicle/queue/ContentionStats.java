@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The waits of the appenders and tailers of a queue for a header or index entry being written by
+ * another thread or process, since these were last cleared. <p> Many waits which are each about
+ * as long as writing an excerpt mean the writers are contending for the headers, while a few long
+ * waits mean the writer holding the header stalled, e.g. on a page fault of the disk. </p>
+ */
+public interface ContentionStats {
+    /**
+     * The number of buckets in the wait histogram.
+     */
+    int WAIT_HISTOGRAM_BUCKETS = 24;
+
+    ContentionStats NONE = new ContentionStats() {
+        @Override
+        public long getAndClearContentionCount() {
+            return 0;
+        }
+
+        @Override
+        public long getAndClearTotalWaitNanos() {
+            return 0;
+        }
+
+        @Override
+        public long getAndClearMaxWaitNanos() {
+            return 0;
+        }
+
+        @NotNull
+        @Override
+        public long[] getAndClearWaitHistogram() {
+            return new long[WAIT_HISTOGRAM_BUCKETS];
+        }
+
+        @Override
+        public long typicalWaitNanos() {
+            return 0;
+        }
+    };
+
+    /**
+     * @return the upper bound of a bucket of the wait histogram, or Long.MAX_VALUE for the last.
+     */
+    static long bucketUpperNanos(int bucket) {
+        return bucket >= WAIT_HISTOGRAM_BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucket + 10);
+    }
+
+    /**
+     * @return the number of times a thread had to wait.
+     */
+    long getAndClearContentionCount();
+
+    long getAndClearTotalWaitNanos();
+
+    long getAndClearMaxWaitNanos();
+
+    /**
+     * @return the number of waits in each bucket, where bucket i counts waits shorter than {@link
+     * #bucketUpperNanos(int)} and at least as long as the bucket before it.
+     */
+    @NotNull
+    long[] getAndClearWaitHistogram();
+
+    /**
+     * @return the moving average of the waits, which the pausers spin and yield for before they
+     * park.
+     */
+    long typicalWaitNanos();
+}
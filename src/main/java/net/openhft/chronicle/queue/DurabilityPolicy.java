@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * When the excerpts appended to a queue are forced to disk, rather than left for the OS to write
+ * back. <p> {@link #NONE} leaves it to the OS, {@link #asyncEvery(long, long)} syncs from the
+ * event loop of the queue after a number of excerpts or an amount of time, and {@link
+ * #SYNC_ON_CLOSE} syncs before an append returns. Concurrent appenders waiting on a sync share
+ * it, so one sync can cover many appends. </p>
+ */
+public final class DurabilityPolicy {
+    public static final DurabilityPolicy NONE = new DurabilityPolicy(Mode.NONE, 0, 0);
+    public static final DurabilityPolicy SYNC_ON_CLOSE = new DurabilityPolicy(Mode.SYNC_ON_CLOSE, 0, 0);
+
+    @NotNull
+    private final Mode mode;
+    private final long messages;
+    private final long micros;
+
+    private DurabilityPolicy(@NotNull Mode mode, long messages, long micros) {
+        this.mode = mode;
+        this.messages = messages;
+        this.micros = micros;
+    }
+
+    /**
+     * @param messages sync after this many excerpts have been appended, or 0 for no limit
+     * @param micros   sync when this long has passed since the last sync and anything has been
+     *                 appended, or 0 for no limit
+     * @return a policy which syncs in the background after whichever comes first.
+     */
+    @NotNull
+    public static DurabilityPolicy asyncEvery(long messages, long micros) {
+        if (messages < 0 || micros < 0 || (messages == 0 && micros == 0))
+            throw new IllegalArgumentException("At least one of messages: " + messages +
+                    " or micros: " + micros + " must be positive");
+        return new DurabilityPolicy(Mode.ASYNC, messages, micros);
+    }
+
+    @NotNull
+    public Mode mode() {
+        return mode;
+    }
+
+    public long messages() {
+        return messages;
+    }
+
+    public long micros() {
+        return micros;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return mode == Mode.ASYNC
+                ? "ASYNC_EVERY(messages=" + messages + ", micros=" + micros + ")"
+                : mode.name();
+    }
+
+    public enum Mode {
+        NONE, ASYNC, SYNC_ON_CLOSE
+    }
+}
@@ -40,6 +40,17 @@ public interface ExcerptAppender extends ExcerptCommon<ExcerptAppender>, Marshal
         writeBytes((BytesStore) bytes);
     }
 
+    /**
+     * Write a batch of excerpts, one for each element. An implementation can claim the space for
+     * many excerpts at once, however each excerpt is still read individually with its own index.
+     *
+     * @param batch of excerpts to write in order.
+     */
+    default void writeBytes(@NotNull BytesStore[] batch) throws UnrecoverableTimeoutException {
+        for (BytesStore bytes : batch)
+            writeBytes(bytes);
+    }
+
     /**
      * Write an entry at a given index. This can use used for rebuilding a queue, or replication.
      *
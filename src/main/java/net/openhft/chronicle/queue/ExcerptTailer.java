@@ -16,12 +16,16 @@
 package net.openhft.chronicle.queue;
 
 import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.queue.impl.RollingChronicleQueue;
 import net.openhft.chronicle.wire.DocumentContext;
 import net.openhft.chronicle.wire.MarshallableIn;
 import net.openhft.chronicle.wire.ReadMarshallable;
 import net.openhft.chronicle.wire.SourceContext;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * The component that facilitates sequentially reading data from a {@link ChronicleQueue}.
  *
@@ -45,6 +49,28 @@ public interface ExcerptTailer extends ExcerptCommon<ExcerptTailer>, Marshallabl
     @NotNull
     DocumentContext readingDocument(boolean includeMetaData);
 
+    /**
+     * Reads up to {@code maxMessages} excerpts, passing each to the handler. This is intended for
+     * consumers catching up, an implementation can read all the excerpts already written with
+     * less checking per excerpt than {@link #readingDocument()}. Meta data is skipped.
+     *
+     * @param maxMessages the most excerpts to read
+     * @param handler     to pass each excerpt to
+     * @return the number of excerpts read.
+     */
+    default int readBatch(int maxMessages, @NotNull BatchHandler handler) {
+        int count = 0;
+        while (count < maxMessages) {
+            try (DocumentContext dc = readingDocument()) {
+                if (!dc.isPresent())
+                    break;
+                handler.onExcerpt(dc.index(), dc.wire());
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * @return the index just read, this include the cycle and the sequence number from with this
      * cycle
@@ -66,6 +92,66 @@ public interface ExcerptTailer extends ExcerptCommon<ExcerptTailer>, Marshallabl
      */
     boolean moveToIndex(long index);
 
+    /**
+     * Moves to an excerpt at or before the first excerpt written at or after a time, so no
+     * excerpt written from then on is skipped. This uses the time index of the queue if it has
+     * one, which moves to the last indexed excerpt recorded before the time, up to indexSpacing - 1
+     * excerpts early, or more if the excerpts were indexed some time after they were written.
+     * Otherwise it moves to the start of the cycle for that time. When cycles roll on size, the
+     * search starts from the last cycle started at or before that time, so a tailer of such a
+     * queue must be created from a queue built with the same roll options.
+     *
+     * @param epochNanos the time as nanoseconds since 1970-01-01 00:00:00.000 UTC
+     * @return true if there may be an excerpt to read, false if this was moved to the end.
+     */
+    default boolean moveBeforeTime(long epochNanos) {
+        ChronicleQueue queue = queue();
+        if (queue instanceof RollingChronicleQueue) {
+            RollingChronicleQueue rolling = (RollingChronicleQueue) queue;
+            RollCycle rollCycle = rolling.rollCycle();
+            long millis = TimeUnit.NANOSECONDS.toMillis(epochNanos);
+            int cycle = (int) Math.floorDiv(millis - rolling.epoch(), (long) rollCycle.length());
+            if (moveToIndex(rollCycle.toIndex(cycle, 0)))
+                return true;
+        }
+        // the start is before any time.
+        toStart();
+        return true;
+    }
+
+    /**
+     * Waits until there may be an excerpt to read, without polling readingDocument(). This spins
+     * briefly, then parks, and is woken by appenders to the same queue in this process, or
+     * notices excerpts appended by other processes when it next wakes. Implementations which
+     * can't tell if there is data wait briefly and return true.
+     *
+     * @param timeout the longest to wait
+     * @param unit    of the timeout
+     * @return true if there may be an excerpt to read, false if the timeout passed without one.
+     */
+    default boolean awaitData(long timeout, @NotNull TimeUnit unit) {
+        LockSupport.parkNanos(Math.min(unit.toNanos(timeout), TimeUnit.MILLISECONDS.toNanos(1)));
+        return true;
+    }
+
+    /**
+     * How many excerpts have been appended after the position of this tailer, worked out from the
+     * headers appended since it was last asked rather than by counting the cycle.
+     *
+     * @return the excerpts still to be read, or -1 if not known.
+     */
+    default long lag() {
+        return -1;
+    }
+
+    /**
+     * @return the bytes appended after the position of this tailer, including the headers, or -1
+     * if not known.
+     */
+    default long lagBytes() {
+        return -1;
+    }
+
     /**
      * Replay from the first entry in the first cycle.
      *
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+/**
+ * The syncs to disk made for the {@link DurabilityPolicy} of a queue, since these were last
+ * cleared.
+ */
+public interface FlushStats {
+    FlushStats NONE = new FlushStats() {
+        @Override
+        public long getAndClearFlushCount() {
+            return 0;
+        }
+
+        @Override
+        public long getAndClearFlushedAppendCount() {
+            return 0;
+        }
+
+        @Override
+        public long getAndClearTotalFlushNanos() {
+            return 0;
+        }
+
+        @Override
+        public long getAndClearMaxFlushNanos() {
+            return 0;
+        }
+    };
+
+    long getAndClearFlushCount();
+
+    /**
+     * @return the number of appends covered by those syncs, which is more than the flush count
+     * when syncs are shared.
+     */
+    long getAndClearFlushedAppendCount();
+
+    long getAndClearTotalFlushNanos();
+
+    long getAndClearMaxFlushNanos();
+}
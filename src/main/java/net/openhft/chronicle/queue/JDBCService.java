@@ -20,7 +20,6 @@ package net.openhft.chronicle.queue;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.util.ThrowingSupplier;
 import net.openhft.chronicle.threads.NamedThreadFactory;
-import net.openhft.chronicle.threads.Pauser;
 import net.openhft.chronicle.wire.MethodReader;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -30,6 +29,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by peter on 06/04/16.
@@ -60,13 +60,11 @@ public class JDBCService implements Closeable {
                     .recordHistory(true)
                     .get();
             JDBCComponent js = new JDBCComponent(connectionSupplier, result);
-            MethodReader reader = in.createTailer().afterLastWritten(out).methodReader(js);
-            Pauser pauser = Pauser.millis(1, 10);
+            ExcerptTailer tailer = in.createTailer().afterLastWritten(out);
+            MethodReader reader = tailer.methodReader(js);
             while (!closed) {
-                if (reader.readOne())
-                    pauser.reset();
-                else
-                    pauser.pause();
+                if (!reader.readOne())
+                    tailer.awaitData(10, TimeUnit.MILLISECONDS);
             }
         } catch (Throwable t) {
             LOGGER.warn("Run loop exited", t);
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+/**
+ * Hints given to the OS with madvise about how the mapped cycle files of a queue are used. These
+ * are only applied on Linux, and only when the native call can be made, otherwise they are
+ * ignored.
+ */
+public enum MadviseHint {
+    /**
+     * Tailers more than a block behind the write position are reading to catch up, so ask for
+     * aggressive read ahead of the block they are reading.
+     */
+    SEQUENTIAL,
+    /**
+     * Ask for the pages ahead of the background pretoucher to be read in before it touches them.
+     */
+    WILL_NEED,
+    /**
+     * Tailers catching up give back the pages they have read, so a replay doesn't push the
+     * pages being appended to out of memory. MADV_COLD is used where the kernel supports it, as
+     * it only deactivates the pages, otherwise MADV_DONTNEED. The data is in the file, so other
+     * readers of the same pages fault them back in.
+     */
+    DONT_NEED_BEHIND,
+    /**
+     * Ask for transparent huge pages for the blocks the pretoucher and tailers reach, which only
+     * has an effect where the file system supports them, e.g. tmpfs with huge pages enabled.
+     */
+    HUGE_PAGE
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+/**
+ * What the background pretoucher of a queue has done since these were last cleared.
+ */
+public interface PretouchStats {
+    PretouchStats NONE = new PretouchStats() {
+        @Override
+        public long getAndClearPagesTouched() {
+            return 0;
+        }
+
+        @Override
+        public long getAndClearPagesAlreadyWritten() {
+            return 0;
+        }
+
+        @Override
+        public long getAndClearTouchNanos() {
+            return 0;
+        }
+
+        @Override
+        public long headRoom() {
+            return 0;
+        }
+    };
+
+    long getAndClearPagesTouched();
+
+    /**
+     * @return the pages which had been written to by the time they were touched, which means the
+     * pretoucher isn't far enough ahead.
+     */
+    long getAndClearPagesAlreadyWritten();
+
+    long getAndClearTouchNanos();
+
+    /**
+     * @return how many bytes the pages touched were ahead of the write position of the current
+     * cycle, when last pretouched.
+     */
+    long headRoom();
+}
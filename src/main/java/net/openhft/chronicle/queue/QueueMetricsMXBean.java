@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+/**
+ * The metrics of a queue, registered as an MXBean named {@code
+ * net.openhft.chronicle.queue:type=Queue,name=<path>} when the queue is built with metrics. <p>
+ * The counts are since the queue was opened, the rates are over the last second, and the
+ * percentiles are of the times recorded since the queue was opened or they were last {@link
+ * #reset()}, to within 1/8th. </p>
+ */
+public interface QueueMetricsMXBean {
+    String getPath();
+
+    /**
+     * @return the excerpts appended by this process, where a batch counts as one append.
+     */
+    long getAppendCount();
+
+    /**
+     * @return the bytes appended by this process, including the headers.
+     */
+    long getAppendedBytes();
+
+    long getAppendsPerSecond();
+
+    long getAppendedBytesPerSecond();
+
+    /**
+     * @return how many times a header was written, by an appender of this process.
+     */
+    long getHeaderWaitCount();
+
+    /**
+     * @return the median time to write a header, which includes waiting for any other writer to
+     * complete theirs.
+     */
+    long getHeaderWaitMedianNanos();
+
+    long getHeaderWait99Nanos();
+
+    /**
+     * @return the 99.9th percentile time to write a header.
+     */
+    long getHeaderWait999Nanos();
+
+    long getHeaderWaitMaxNanos();
+
+    /**
+     * @return how many times an appender rolled to another cycle.
+     */
+    long getRollCount();
+
+    /**
+     * @return the median time to roll, which is writing the end of the last cycle and acquiring
+     * the store of the next.
+     */
+    long getRollMedianNanos();
+
+    long getRollMaxNanos();
+
+    long getStoreAcquireCount();
+
+    long getStoreReleaseCount();
+
+    /**
+     * @return the pages touched by the background pretoucher.
+     */
+    long getPagesPretouched();
+
+    /**
+     * @return the pages the background pretoucher found already written.
+     */
+    long getPagesAlreadyWritten();
+
+    /**
+     * @return how far the background pretoucher is ahead of the write position, or 0 if there
+     * isn't one.
+     */
+    long getPretouchHeadRoom();
+
+    /**
+     * @return the syncs made for the durability policy.
+     */
+    long getFlushCount();
+
+    long getFlush99Nanos();
+
+    long getFlushMaxNanos();
+
+    /**
+     * Clears the times recorded for the percentiles and maximums.
+     */
+    void reset();
+}
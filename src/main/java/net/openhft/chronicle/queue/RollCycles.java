@@ -19,11 +19,18 @@ import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.time.TimeProvider;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
+
 public enum RollCycles implements RollCycle {
     TEST_SECONDLY("yyyyMMdd-HHmmss", 1000, 1 << 15, 4), // only good for testing
+    FIVE_SECONDLY("yyyyMMdd-HHmmss", 5 * 1000, 1 << 10, 16), // 16 million entries per five seconds
+    TEN_SECONDLY("yyyyMMdd-HHmmss", 10 * 1000, 2 << 10, 16), // 64 million entries per ten seconds
     MINUTELY("yyyyMMdd-HHmm", 60 * 1000, 2 << 10, 16), // 64 million entries per minute
+    FIVE_MINUTELY("yyyyMMdd-HHmm", 5 * 60 * 1000, 4 << 10, 16), // 256 million entries per five minutes
+    TEN_MINUTELY("yyyyMMdd-HHmm", 10 * 60 * 1000, 4 << 10, 16), // 256 million entries per ten minutes
     TEST_HOURLY("yyyyMMdd-HH", 60 * 60 * 1000, 16, 4), // 512 entries per hour.
     HOURLY("yyyyMMdd-HH", 60 * 60 * 1000, 4 << 10, 16), // 256 million entries per hour.
+    FOUR_HOURLY("yyyyMMdd-HH", 4 * 60 * 60 * 1000, 8 << 10, 16), // 1 billion entries per four hours.
     TEST_DAILY("yyyyMMdd", 24 * 60 * 60 * 1000, 8, 1), // Only good for testing - 63 entries per day
     TEST2_DAILY("yyyyMMdd", 24 * 60 * 60 * 1000, 16, 2), // Only good for testing
     TEST4_DAILY("yyyyMMdd", 24 * 60 * 60 * 1000, 32, 4), // Only good for testing
@@ -50,6 +57,50 @@ public enum RollCycles implements RollCycle {
         sequenceMask = (1L << cycleShift) - 1;
     }
 
+    /**
+     * A roll cycle of any whole number of seconds, with an index sized for the number of
+     * excerpts expected in a cycle. The index has room for at least four times as many, and the
+     * spacing between indexed excerpts grows with the rate, so a cycle's index stays small.
+     *
+     * @param length                   of each cycle, a whole number of seconds.
+     * @param expectedMessagesPerCycle the number of excerpts a cycle is expected to have
+     * @return a roll cycle. The same one must be used by every queue on a directory.
+     * @throws IllegalArgumentException if the length isn't a whole number of seconds or there
+     *                                  are too many messages for the cycle number to fit.
+     */
+    @NotNull
+    public static RollCycle custom(@NotNull Duration length, long expectedMessagesPerCycle)
+            throws IllegalArgumentException {
+        long millis = length.toMillis();
+        if (millis < 1000 || millis % 1000 != 0 || millis > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The length must be a whole number of seconds, was " + length);
+        if (expectedMessagesPerCycle <= 0)
+            throw new IllegalArgumentException("expectedMessagesPerCycle must be positive");
+
+        String format = millis % (24 * 60 * 60 * 1000) == 0 ? "yyyyMMdd"
+                : millis % (60 * 60 * 1000) == 0 ? "yyyyMMdd-HH"
+                : millis % (60 * 1000) == 0 ? "yyyyMMdd-HHmm"
+                : "yyyyMMdd-HHmmss";
+
+        long capacity = Math.max(expectedMessagesPerCycle, 1 << 8) * 4;
+        int indexSpacing = capacity <= 1 << 18 ? 4
+                : capacity <= 1L << 30 ? 16
+                : capacity <= 1L << 36 ? 64
+                : 256;
+        long indexCount = 8;
+        while (indexCount * indexCount * indexSpacing < capacity)
+            indexCount <<= 1;
+        if (indexCount > 1 << 20)
+            throw new IllegalArgumentException("Too many messages per cycle: " + expectedMessagesPerCycle);
+
+        Custom custom = new Custom(format, (int) millis, (int) indexCount, indexSpacing);
+        // leave room for the cycles for at least the next few hundred years.
+        long maxCycle = (1L << (63 - custom.cycleShift)) - 1;
+        if (maxCycle < 16L * System.currentTimeMillis() / millis)
+            throw new IllegalArgumentException("Too many messages per cycle for cycles of " + length);
+        return custom;
+    }
+
     @Override
     public String format() {
         return this.format;
@@ -88,5 +139,72 @@ public enum RollCycles implements RollCycle {
         return Maths.toUInt31(index >> cycleShift);
     }
 
+    static final class Custom implements RollCycle {
+        final String format;
+        final int length;
+        final int cycleShift;
+        final int indexCount;
+        final int indexSpacing;
+        final long sequenceMask;
+
+        Custom(String format, int length, int indexCount, int indexSpacing) {
+            this.format = format;
+            this.length = length;
+            this.indexCount = indexCount;
+            this.indexSpacing = indexSpacing;
+            cycleShift = Math.max(32, Maths.intLog2(indexCount) * 2 + Maths.intLog2(indexSpacing));
+            sequenceMask = (1L << cycleShift) - 1;
+        }
+
+        @Override
+        public String format() {
+            return format;
+        }
 
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public int defaultIndexCount() {
+            return indexCount;
+        }
+
+        @Override
+        public int defaultIndexSpacing() {
+            return indexSpacing;
+        }
+
+        @Override
+        public int current(@NotNull TimeProvider time, long epoch) {
+            return (int) ((time.currentTimeMillis() - epoch) / length);
+        }
+
+        @Override
+        public long toIndex(int cycle, long sequenceNumber) {
+            return ((long) cycle << cycleShift) + (sequenceNumber & sequenceMask);
+        }
+
+        @Override
+        public long toSequenceNumber(long index) {
+            return index & sequenceMask;
+        }
+
+        @Override
+        public int toCycle(long index) {
+            return Maths.toUInt31(index >> cycleShift);
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "Custom{" +
+                    "format='" + format + '\'' +
+                    ", length=" + length +
+                    ", indexCount=" + indexCount +
+                    ", indexSpacing=" + indexSpacing +
+                    '}';
+        }
+    }
 }
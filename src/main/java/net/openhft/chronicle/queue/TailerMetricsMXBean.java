@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+/**
+ * The metrics of a named tailer, registered as an MXBean named {@code
+ * net.openhft.chronicle.queue:type=Tailer,queue=<path>,name=<name>} when the queue is built with
+ * metrics.
+ */
+public interface TailerMetricsMXBean {
+    String getName();
+
+    long getExcerptsRead();
+
+    long getBytesRead();
+
+    long getExcerptsReadPerSecond();
+
+    /**
+     * @return the index of the last excerpt read, or -1 if none has been read.
+     */
+    long getLastIndexRead();
+
+    /**
+     * @return the excerpts appended which the tailer has still to read, or -1 if not known yet.
+     */
+    long getLagExcerpts();
+
+    /**
+     * @return the bytes appended, including headers, which the tailer has still to read, or -1 if
+     * not known yet.
+     */
+    long getLagBytes();
+
+    /**
+     * @return true if the tailer is behind by at least one of the lag thresholds.
+     */
+    boolean isLagging();
+
+    /**
+     * @return the number of times the tailer has fallen behind by a lag threshold.
+     */
+    long getLagAlertCount();
+
+    /**
+     * @return the excerpts behind at which the tailer is lagging, or 0 for no threshold.
+     */
+    long getLagThresholdExcerpts();
+
+    void setLagThresholdExcerpts(long lagThresholdExcerpts);
+
+    /**
+     * @return the bytes behind at which the tailer is lagging, or 0 for no threshold.
+     */
+    long getLagThresholdBytes();
+
+    void setLagThresholdBytes(long lagThresholdBytes);
+}
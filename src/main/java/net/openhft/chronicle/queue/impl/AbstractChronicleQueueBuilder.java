@@ -25,6 +25,11 @@ import net.openhft.chronicle.core.time.SystemTimeProvider;
 import net.openhft.chronicle.core.time.TimeProvider;
 import net.openhft.chronicle.queue.BufferMode;
 import net.openhft.chronicle.queue.ChronicleQueueBuilder;
+import net.openhft.chronicle.queue.ContentionStats;
+import net.openhft.chronicle.queue.DurabilityPolicy;
+import net.openhft.chronicle.queue.FlushStats;
+import net.openhft.chronicle.queue.MadviseHint;
+import net.openhft.chronicle.queue.PretouchStats;
 import net.openhft.chronicle.queue.RollCycle;
 import net.openhft.chronicle.queue.RollCycles;
 import net.openhft.chronicle.queue.impl.single.StoreRecoveryFactory;
@@ -39,6 +44,10 @@ import org.slf4j.LoggerFactory;
 
 import javax.crypto.Cipher;
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -79,6 +88,37 @@ public abstract class AbstractChronicleQueueBuilder<B extends ChronicleQueueBuil
             Jvm.debug().on(getClass(), "File released " + file);
 
     private boolean readOnly = false;
+    private long prepareNextCycleMS = 0;
+    private boolean backgroundIndexing = false;
+    private boolean timeIndex = false;
+    private int maxIdleStores = 0;
+    private long maxIdleStoreBytes = 0;
+    private boolean watchDirectory = false;
+    private boolean recordCycleCounts = false;
+    private int indexCacheSize = 0;
+    private long maxCycleBytes = 0;
+    private long maxCycleExcerpts = 0;
+    @Nullable
+    private RollCycle rollBoundary = null;
+    private long preallocateBytes = 0;
+    private boolean backgroundPretouch = false;
+    @NotNull
+    private Set<MadviseHint> madviseHints = Collections.emptySet();
+    @NotNull
+    private Consumer<PretouchStats> onPretouchStats = stats -> {
+    };
+    private long preallocateAheadBytes = 0;
+    @NotNull
+    private DurabilityPolicy durabilityPolicy = DurabilityPolicy.NONE;
+    @NotNull
+    private Consumer<FlushStats> onFlushStats = stats -> {
+    };
+    private boolean contentionAwarePauser = false;
+    private boolean metrics = false;
+    private long lagAlertExcerpts = 0, lagAlertBytes = 0;
+    @NotNull
+    private Consumer<ContentionStats> onContentionStats = stats -> {
+    };
 
     public AbstractChronicleQueueBuilder(File path) {
         this.rollCycle = RollCycles.DAILY;
@@ -228,7 +268,7 @@ public abstract class AbstractChronicleQueueBuilder<B extends ChronicleQueueBuil
     }
 
     /**
-     * @return BufferMode to use for writes. Only None is available is the OSS
+     * @return BufferMode to use for writes. None and Asynchronous are available in the OSS
      */
     @NotNull
     public BufferMode writeBufferMode() {
@@ -345,6 +385,401 @@ public abstract class AbstractChronicleQueueBuilder<B extends ChronicleQueueBuil
         return sourceId;
     }
 
+    /**
+     * @return how long before the queue rolls, in milliseconds, the file for the next cycle is
+     * created in the background, 0 if it is created by the first appender to roll.
+     */
+    public long prepareNextCycleMS() {
+        return prepareNextCycleMS;
+    }
+
+    /**
+     * Creates, maps and initialises the file for the next cycle on the event loop shortly before
+     * the queue rolls, so the appender doesn't pay for this on its first write after the roll.
+     * <p>
+     * The file is prepared under a temporary name and linked into place by the appender which
+     * rolls to it, so no tailer, in this or another process, sees the next cycle early. An
+     * appender in another process creates the file itself as usual.
+     *
+     * @param prepareNextCycleMS how long before the roll, in milliseconds, at most half a cycle.
+     *                           0 to disable.
+     * @return this
+     */
+    public B prepareNextCycleMS(long prepareNextCycleMS) {
+        this.prepareNextCycleMS = prepareNextCycleMS;
+        return (B) this;
+    }
+
+    public boolean backgroundIndexing() {
+        return backgroundIndexing;
+    }
+
+    /**
+     * When set to {@code true}, appenders default to lazyIndexing and the index is written by a
+     * background indexer on the event loop which follows the end of the queue. This keeps the cost
+     * of indexing off the appending threads without leaving it to random access readers.
+     *
+     * @param backgroundIndexing {@code true} to index in the background
+     * @return this
+     */
+    public B backgroundIndexing(boolean backgroundIndexing) {
+        this.backgroundIndexing = backgroundIndexing;
+        return (B) this;
+    }
+
+    public boolean timeIndex() {
+        return timeIndex;
+    }
+
+    /**
+     * When set to {@code true}, the time each indexed excerpt was written is recorded in a file
+     * next to each cycle file, so ExcerptTailer.moveBeforeTime() can find an excerpt with a
+     * binary search. With lazyIndexing the time recorded is when the excerpt was indexed.
+     *
+     * @param timeIndex {@code true} to record a time index
+     * @return this
+     */
+    public B timeIndex(boolean timeIndex) {
+        this.timeIndex = timeIndex;
+        return (B) this;
+    }
+
+    public int maxIdleStores() {
+        return maxIdleStores;
+    }
+
+    /**
+     * Keeps up to this many cycle files mapped after the last tailer or appender using them has
+     * moved on, so moving back and forth over a roll, or counting excerpts, doesn't map the same
+     * files again. The least recently used are unmapped on the event loop.
+     *
+     * @param maxIdleStores the most released cycle files to keep mapped, 0 for none.
+     * @return this
+     */
+    public B maxIdleStores(int maxIdleStores) {
+        this.maxIdleStores = maxIdleStores;
+        return (B) this;
+    }
+
+    public long maxIdleStoreBytes() {
+        return maxIdleStoreBytes;
+    }
+
+    /**
+     * @param maxIdleStoreBytes the most bytes written to the released cycle files kept mapped, 0
+     *                          for no limit other than {@link #maxIdleStores(int)}
+     * @return this
+     */
+    public B maxIdleStoreBytes(long maxIdleStoreBytes) {
+        this.maxIdleStoreBytes = maxIdleStoreBytes;
+        return (B) this;
+    }
+
+    public boolean watchDirectory() {
+        return watchDirectory;
+    }
+
+    /**
+     * When set to {@code true}, the queue directory is listed once and then watched for cycle
+     * files created or deleted, rather than listed each time the first, last or next cycle is
+     * needed. This is worth doing when many cycle files are retained. Files created by another
+     * process are seen once the file system reports them, which is prompt with inotify on Linux,
+     * but can be seconds late where the JDK polls for changes instead, such as on macOS.
+     *
+     * @param watchDirectory {@code true} to watch the directory
+     * @return this
+     */
+    public B watchDirectory(boolean watchDirectory) {
+        this.watchDirectory = watchDirectory;
+        return (B) this;
+    }
+
+    public boolean recordCycleCounts() {
+        return recordCycleCounts;
+    }
+
+    /**
+     * When set to {@code true}, an appender which rolls to a new cycle records the number of
+     * excerpts in the previous cycle in a file in the queue directory, so countExcerpts() doesn't
+     * have to scan the cycles in between.
+     *
+     * @param recordCycleCounts {@code true} to record the number of excerpts in each cycle
+     * @return this
+     */
+    public B recordCycleCounts(boolean recordCycleCounts) {
+        this.recordCycleCounts = recordCycleCounts;
+        return (B) this;
+    }
+
+    public int indexCacheSize() {
+        return indexCacheSize;
+    }
+
+    /**
+     * Keeps a copy on the heap of up to this many full secondary index arrays, shared by every
+     * tailer of the queue, so random access by many threads doesn't each bind to and read the
+     * index in the mapped file. Each array is indexCount longs.
+     *
+     * @param indexCacheSize the number of index arrays to cache, 0 for none.
+     * @return this
+     */
+    public B indexCacheSize(int indexCacheSize) {
+        this.indexCacheSize = indexCacheSize;
+        return (B) this;
+    }
+
+    public long maxCycleBytes() {
+        return maxCycleBytes;
+    }
+
+    /**
+     * Rolls to the next cycle once a cycle file has this many bytes written to it, as well as when
+     * its time has passed. A cycle which fills up before its time has passed rolls to the next
+     * cycle, which is ahead of the time until the time catches up. Use a rollCycle short enough
+     * that this is rare, with a longer {@link #rollBoundary(RollCycle)}.
+     *
+     * @param maxCycleBytes the bytes to roll at, 0 for no limit.
+     * @return this
+     */
+    public B maxCycleBytes(long maxCycleBytes) {
+        this.maxCycleBytes = maxCycleBytes;
+        return (B) this;
+    }
+
+    public long maxCycleExcerpts() {
+        return maxCycleExcerpts;
+    }
+
+    /**
+     * Rolls to the next cycle once a cycle has this many excerpts, as for {@link
+     * #maxCycleBytes(long)}. Excerpts are counted from the index the appender knows for each one,
+     * so this can't be used with {@link #backgroundIndexing(boolean)} or lazyIndexing.
+     *
+     * @param maxCycleExcerpts the excerpts to roll at, 0 for no limit.
+     * @return this
+     */
+    public B maxCycleExcerpts(long maxCycleExcerpts) {
+        this.maxCycleExcerpts = maxCycleExcerpts;
+        return (B) this;
+    }
+
+    @Nullable
+    public RollCycle rollBoundary() {
+        return rollBoundary;
+    }
+
+    /**
+     * Appends to the last cycle until it is full, or the time passes into another period of this
+     * boundary, rather than rolling every rollCycle. e.g. a rollCycle of MINUTELY with a
+     * rollBoundary of HOURLY gives at least one file an hour, named for the minute it was started
+     * in, and a new file whenever the last one is full. A tailer calling moveBeforeTime() must be
+     * created from a queue built with the same options, to search a cycle which was still appended
+     * to after its own time.
+     *
+     * @param rollBoundary a roll cycle which is a multiple of the rollCycle
+     * @return this
+     */
+    public B rollBoundary(@Nullable RollCycle rollBoundary) {
+        this.rollBoundary = rollBoundary;
+        return (B) this;
+    }
+
+    public boolean backgroundPretouch() {
+        return backgroundPretouch;
+    }
+
+    /**
+     * Pretouches ahead of the appenders from the event loop of the queue, so they don't have to
+     * call {@link net.openhft.chronicle.queue.ExcerptAppender#pretouch()} from a thread of their
+     * own. The start of the next cycle is pretouched once its file exists.
+     *
+     * @param backgroundPretouch true to pretouch in the background
+     * @return this
+     */
+    public B backgroundPretouch(boolean backgroundPretouch) {
+        this.backgroundPretouch = backgroundPretouch;
+        return (B) this;
+    }
+
+    @NotNull
+    public Consumer<PretouchStats> onPretouchStats() {
+        return onPretouchStats;
+    }
+
+    /**
+     * consumer will be called every second with what the background pretoucher has done
+     *
+     * @param onPretouchStats a consumer of the PretouchStats
+     * @return this
+     */
+    public B onPretouchStats(@NotNull Consumer<PretouchStats> onPretouchStats) {
+        this.onPretouchStats = onPretouchStats;
+        return (B) this;
+    }
+
+    @NotNull
+    public Set<MadviseHint> madviseHints() {
+        return madviseHints;
+    }
+
+    /**
+     * Gives the OS hints about how the mapped cycle files are used, on Linux. By default no hints
+     * are given. The hints are passed with JNA, an optional dependency, and are skipped if it isn't
+     * on the class path.
+     *
+     * @param madviseHints to give
+     * @return this
+     */
+    public B madviseHints(@NotNull MadviseHint... madviseHints) {
+        this.madviseHints = madviseHints.length == 0
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(madviseHints)));
+        return (B) this;
+    }
+
+    public long preallocateBytes() {
+        return preallocateBytes;
+    }
+
+    /**
+     * Allocates the disk blocks at the start of each cycle file prepared ahead of time with {@link
+     * #prepareNextCycleMS(long)}, rather than leaving the file sparse, so appenders don't wait on
+     * the file system allocating them. This is done on the event loop, as writing the zeros can
+     * take seconds for a large allocation. Files created by an appender, such as the first cycle
+     * or a cycle which wasn't prepared in time, are left sparse, so this is ignored without
+     * prepareNextCycleMS.
+     *
+     * @param preallocateBytes to allocate, or 0 to create the file sparse
+     * @return this
+     */
+    public B preallocateBytes(long preallocateBytes) {
+        this.preallocateBytes = preallocateBytes;
+        return (B) this;
+    }
+
+    public long preallocateAheadBytes() {
+        return preallocateAheadBytes;
+    }
+
+    /**
+     * Keeps the disk blocks of the current cycle file allocated this far ahead of the write
+     * position, from the event loop of the queue. The holes within the file are only allocated on
+     * Linux with JNA available; otherwise the file is only extended past its end.
+     *
+     * @param preallocateAheadBytes to keep allocated ahead, or 0 to not allocate in the background
+     * @return this
+     */
+    public B preallocateAheadBytes(long preallocateAheadBytes) {
+        this.preallocateAheadBytes = preallocateAheadBytes;
+        return (B) this;
+    }
+
+    @NotNull
+    public DurabilityPolicy durabilityPolicy() {
+        return durabilityPolicy;
+    }
+
+    /**
+     * Forces appended excerpts to disk rather than leaving them for the OS to write back, which
+     * bounds what can be lost on a power failure. The default is NONE.
+     *
+     * @param durabilityPolicy when to sync the cycle files appended to
+     * @return this
+     */
+    public B durabilityPolicy(@NotNull DurabilityPolicy durabilityPolicy) {
+        this.durabilityPolicy = durabilityPolicy;
+        return (B) this;
+    }
+
+    @NotNull
+    public Consumer<FlushStats> onFlushStats() {
+        return onFlushStats;
+    }
+
+    /**
+     * consumer will be called every second with the syncs made for the durability policy
+     *
+     * @param onFlushStats a consumer of the FlushStats
+     * @return this
+     */
+    public B onFlushStats(@NotNull Consumer<FlushStats> onFlushStats) {
+        this.onFlushStats = onFlushStats;
+        return (B) this;
+    }
+
+    public boolean contentionAwarePauser() {
+        return contentionAwarePauser;
+    }
+
+    /**
+     * Uses a pauser which adapts how long it spins and yields for to how long headers have lately
+     * been held by other writers, and records the waits, in place of the {@link
+     * #pauserSupplier(Supplier)}.
+     *
+     * @param contentionAwarePauser true to use it
+     * @return this
+     */
+    public B contentionAwarePauser(boolean contentionAwarePauser) {
+        this.contentionAwarePauser = contentionAwarePauser;
+        return (B) this;
+    }
+
+    @NotNull
+    public Consumer<ContentionStats> onContentionStats() {
+        return onContentionStats;
+    }
+
+    /**
+     * consumer will be called every second with the waits of the contention aware pauser
+     *
+     * @param onContentionStats a consumer of the ContentionStats
+     * @return this
+     */
+    public B onContentionStats(@NotNull Consumer<ContentionStats> onContentionStats) {
+        this.onContentionStats = onContentionStats;
+        return (B) this;
+    }
+
+    public boolean metrics() {
+        return metrics;
+    }
+
+    /**
+     * Records the appends, header waits, rolls, store acquires and releases, pretouches and syncs
+     * of the queue, and the reads of its named tailers, and registers them as MXBeans with the
+     * platform MBean server until the queue is closed.
+     *
+     * @param metrics true to record and publish the metrics
+     * @return this
+     */
+    public B metrics(boolean metrics) {
+        this.metrics = metrics;
+        return (B) this;
+    }
+
+    public long lagAlertExcerpts() {
+        return lagAlertExcerpts;
+    }
+
+    public long lagAlertBytes() {
+        return lagAlertBytes;
+    }
+
+    /**
+     * Warns when a named tailer falls behind the appenders by at least this many excerpts or bytes,
+     * and flags it as lagging in its MXBean until it catches up. The thresholds of each tailer can
+     * be changed later through its MXBean. Only used with {@link #metrics(boolean)}.
+     *
+     * @param excerpts behind to alert at, or 0 for no threshold
+     * @param bytes    behind to alert at, or 0 for no threshold
+     * @return this
+     */
+    public B lagAlertThresholds(long excerpts, long bytes) {
+        this.lagAlertExcerpts = excerpts;
+        this.lagAlertBytes = bytes;
+        return (B) this;
+    }
+
     public StoreRecoveryFactory recoverySupplier() {
         return recoverySupplier;
     }
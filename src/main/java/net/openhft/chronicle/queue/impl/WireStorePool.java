@@ -20,31 +20,61 @@ import net.openhft.chronicle.queue.RollDetails;
 import net.openhft.chronicle.queue.TailerDirection;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.ref.Reference;
-import java.lang.ref.WeakReference;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * The stores in use, keyed by cycle. <p> Acquiring a store in the pool is a map lookup and a CAS
+ * on its reference count. Only acquiring a store which isn't in the pool locks, and then only
+ * the entry for that cycle while the store is mapped. </p> <p> If a number of idle stores is
+ * set, the last reference to a store released is kept by the pool instead, so the store stays
+ * mapped in case it is acquired again. The least recently released idle stores are released by
+ * {@link #evictIdle()} once there are too many of them, or they hold too many bytes. </p>
+ */
 public class WireStorePool {
     @NotNull
     private final WireStoreSupplier supplier;
     @NotNull
-    private final Map<RollDetails, WeakReference<WireStore>> stores;
+    private final ConcurrentMap<RollDetails, WireStore> stores = new ConcurrentHashMap<>();
+    // WireStores are compared by identity, so release() can find the key without a scan.
+    @NotNull
+    private final ConcurrentMap<WireStore, RollDetails> keys = new ConcurrentHashMap<>();
     private final StoreFileListener storeFileListener;
-    private boolean isClosed = false;
+    private final int maxIdleStores;
+    private final long maxIdleBytes;
+    // the stores only reserved by the pool, least recently released first.
+    @NotNull
+    private final Map<WireStore, Boolean> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile boolean isClosed = false;
 
-    private WireStorePool(@NotNull WireStoreSupplier supplier, StoreFileListener storeFileListener) {
+    private WireStorePool(@NotNull WireStoreSupplier supplier, StoreFileListener storeFileListener,
+                          int maxIdleStores, long maxIdleBytes) {
         this.supplier = supplier;
         this.storeFileListener = storeFileListener;
-        this.stores = new ConcurrentHashMap<>();
+        this.maxIdleStores = maxIdleStores;
+        this.maxIdleBytes = maxIdleBytes;
     }
 
     @NotNull
     public static WireStorePool withSupplier(@NotNull WireStoreSupplier supplier, StoreFileListener storeFileListener) {
-        return new WireStorePool(supplier, storeFileListener);
+        return new WireStorePool(supplier, storeFileListener, 0, 0);
+    }
+
+    /**
+     * @param maxIdleStores the most stores to keep mapped after they are released, 0 for none.
+     * @param maxIdleBytes  the most bytes written to the idle stores kept, 0 for no limit.
+     */
+    @NotNull
+    public static WireStorePool withSupplier(@NotNull WireStoreSupplier supplier, StoreFileListener storeFileListener,
+                                             int maxIdleStores, long maxIdleBytes) {
+        return new WireStorePool(supplier, storeFileListener, maxIdleStores, maxIdleBytes);
     }
 
     public synchronized void close() {
@@ -52,56 +82,119 @@ public class WireStorePool {
             return;
         isClosed = true;
 
-        stores.values().stream()
-                .map(Reference::get)
-                .filter(Objects::nonNull)
-                .forEach(this::release);
+        List<WireStore> idleStores;
+        synchronized (idle) {
+            idleStores = new ArrayList<>(idle.keySet());
+            idle.clear();
+        }
+        idleStores.forEach(this::release0);
+        new ArrayList<>(stores.values()).forEach(this::release0);
+    }
+
+    public boolean isClosed() {
+        return isClosed;
     }
 
     @org.jetbrains.annotations.Nullable
     @Nullable
-    public synchronized WireStore acquire(final int cycle, final long epoch, boolean createIfAbsent) {
-        RollDetails rollDetails = new RollDetails(cycle, epoch);
-        WeakReference<WireStore> reference = stores.get(rollDetails);
-        WireStore store;
-        if (reference != null) {
-            store = reference.get();
+    public WireStore acquire(final int cycle, final long epoch, boolean createIfAbsent) {
+        final RollDetails rollDetails = new RollDetails(cycle, epoch);
+        for (; ; ) {
+            WireStore store = stores.get(rollDetails);
             if (store != null) {
                 if (store.tryReserve())
                     return store;
-                else
-                    /// this should never happen,
-                    // this method is synchronized
-                    // and this remove below, is only any use if the acquire method below that fails
-                    stores.remove(rollDetails);
+                // it has just been released, make way for a new one.
+                stores.remove(rollDetails, store);
+                continue;
             }
-        }
 
-        store = this.supplier.acquire(cycle, createIfAbsent);
-        if (store != null) {
-            stores.put(rollDetails, new WeakReference<>(store));
-            storeFileListener.onAcquired(cycle, store.file());
+            final WireStore[] created = {null};
+            final boolean[] called = {false};
+            stores.computeIfAbsent(rollDetails, k -> {
+                called[0] = true;
+                WireStore newStore = supplier.acquire(cycle, createIfAbsent);
+                if (newStore != null)
+                    keys.put(newStore, k);
+                return created[0] = newStore;
+            });
+            // another thread added one first, reserve that instead.
+            if (!called[0])
+                continue;
+
+            if (created[0] != null)
+                storeFileListener.onAcquired(cycle, created[0].file());
+            return created[0];
         }
-        return store;
     }
 
     public int nextCycle(final int currentCycle, @NotNull TailerDirection direction) throws ParseException {
         return supplier.nextCycle(currentCycle, direction);
     }
 
-    public synchronized void release(@NotNull WireStore store) {
+    public void release(@NotNull WireStore store) {
+        if (maxIdleStores <= 0 || isClosed || !keys.containsKey(store)) {
+            release0(store);
+            return;
+        }
+        if (store.refCount() == 1) {
+            // keep the last reference, so the store is still mapped if it is acquired again.
+            synchronized (idle) {
+                idle.put(store, Boolean.TRUE);
+            }
+            return;
+        }
+        release0(store);
+        if (store.refCount() == 1) {
+            // only the pool holds it, this makes it the most recently released.
+            synchronized (idle) {
+                idle.get(store);
+            }
+        }
+    }
+
+    /**
+     * Releases the least recently released idle store if there are more than the maximum or they
+     * hold more than the maximum bytes. This is intended to be called in the background.
+     *
+     * @return true if a store was released.
+     */
+    public boolean evictIdle() {
+        WireStore eldest;
+        synchronized (idle) {
+            if (idle.isEmpty() || !tooManyIdle())
+                return false;
+            Iterator<WireStore> iterator = idle.keySet().iterator();
+            eldest = iterator.next();
+            iterator.remove();
+        }
+        // if it has been acquired again, this only drops the reference held by the pool.
+        release0(eldest);
+        return true;
+    }
+
+    private boolean tooManyIdle() {
+        if (idle.size() > maxIdleStores)
+            return true;
+        if (maxIdleBytes <= 0)
+            return false;
+        long bytes = 0;
+        for (WireStore store : idle.keySet())
+            bytes += store.writePosition();
+        return bytes > maxIdleBytes;
+    }
+
+    private void release0(@NotNull WireStore store) {
         store.release();
 
         long refCount = store.refCount();
         assert refCount >= 0;
         if (refCount == 0) {
-            for (Map.Entry<RollDetails, WeakReference<WireStore>> entry : stores.entrySet()) {
-                WeakReference<WireStore> ref = entry.getValue();
-                if (ref != null && ref.get() == store) {
-                    stores.remove(entry.getKey());
-                    storeFileListener.onReleased(entry.getKey().cycle(), store.file());
-                    break;
-                }
+            // only one of the threads which sees the count reach zero removes it.
+            RollDetails rollDetails = keys.remove(store);
+            if (rollDetails != null) {
+                stores.remove(rollDetails, store);
+                storeFileListener.onReleased(rollDetails.cycle(), store.file());
             }
         }
     }
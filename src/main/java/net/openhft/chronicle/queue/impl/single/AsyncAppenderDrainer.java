@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.jetbrains.annotations.NotNull;
+
+import static net.openhft.chronicle.queue.impl.single.MultiWriterBytesRingBuffer.META_DATA;
+import static net.openhft.chronicle.queue.impl.single.MultiWriterBytesRingBuffer.PAD_TO_CACHE_ALIGN;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueExcerpts.StoreAppender;
+
+/**
+ * Copies the excerpts buffered by the appenders of a queue with a writeBufferMode of
+ * Asynchronous into the queue, from the event loop of the queue.
+ */
+class AsyncAppenderDrainer implements EventHandler {
+    private static final int MAX_BATCH = 256;
+    private static final long STATS_INTERVAL_MS = 1000;
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    @NotNull
+    private final MultiWriterBytesRingBuffer ringBuffer;
+    @NotNull
+    private final StoreAppender appender;
+    @NotNull
+    private final MultiWriterBytesRingBuffer.RecordHandler writer = this::write;
+    private long nextStatsTime;
+    private boolean closed = false;
+
+    AsyncAppenderDrainer(@NotNull SingleChronicleQueue queue, @NotNull MultiWriterBytesRingBuffer ringBuffer) {
+        this.queue = queue;
+        this.ringBuffer = ringBuffer;
+        // this appender writes to the store directly, not back into the ring buffer.
+        this.appender = new StoreAppender(queue, null);
+        this.nextStatsTime = System.currentTimeMillis() + STATS_INTERVAL_MS;
+    }
+
+    @Override
+    public synchronized boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+
+        boolean busy = ringBuffer.drain(writer, MAX_BATCH) > 0;
+
+        long now = System.currentTimeMillis();
+        if (now >= nextStatsTime) {
+            nextStatsTime = now + STATS_INTERVAL_MS;
+            queue.onRingBufferStats().accept(ringBuffer);
+        }
+        return busy;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MEDIUM;
+    }
+
+    private void write(@NotNull BytesStore store, long offset, int length, int flags) {
+        try (DocumentContext dc = appender.writingDocument((flags & META_DATA) != 0)) {
+            dc.wire().bytes().write(store, offset, length);
+            ((StoreAppender.StoreAppenderContext) dc).padToCacheAlign = (flags & PAD_TO_CACHE_ALIGN) != 0;
+        }
+    }
+
+    /**
+     * Writes everything left in the ring buffer to the queue, waiting up to the timeoutMS of the
+     * queue for excerpts which have been claimed but not yet published.
+     */
+    synchronized void close() {
+        if (closed)
+            return;
+        long end = System.currentTimeMillis() + queue.timeoutMS;
+        try {
+            while (!ringBuffer.isEmpty()) {
+                if (ringBuffer.drain(writer, MAX_BATCH) > 0)
+                    continue;
+                if (System.currentTimeMillis() > end) {
+                    Jvm.warn().on(getClass(), "Timed out waiting for buffered excerpts to be published, " +
+                            "some excerpts may have been lost");
+                    break;
+                }
+                Thread.yield();
+            }
+        } finally {
+            closed = true;
+            ringBuffer.close();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.impl.ExcerptContext;
+import net.openhft.chronicle.queue.impl.WireStore;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireType;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.StreamCorruptedException;
+import java.text.ParseException;
+
+import static net.openhft.chronicle.queue.TailerDirection.BACKWARD;
+import static net.openhft.chronicle.queue.TailerDirection.FORWARD;
+
+/**
+ * Follows the write position of the queue from the event loop and adds the index entries the
+ * appenders skip when the queue is built with backgroundIndexing(true). <p> Scanning starts from
+ * the last entry indexed in the last cycle with entries, and the store only adds entries beyond the
+ * next entry to be indexed, so several processes can index the same queue. </p>
+ */
+class BackgroundIndexer implements EventHandler, ExcerptContext {
+    // the most headers to scan in one call to action()
+    private static final int MAX_SCAN = 4096;
+    // how often to look for the next cycle file at the end of a cycle.
+    private static final long NEXT_CYCLE_CHECK_MS = 100;
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private int cycle = Integer.MIN_VALUE;
+    @Nullable
+    private WireStore store;
+    @Nullable
+    private Wire wire, wireForIndex;
+    @Nullable
+    private TimeIndex timeIndex;
+    private long position = -1; // of the next header to scan
+    private long sequence; // of the next excerpt
+    private long nextCycleCheckTime = 0;
+    private boolean closed = false;
+
+    BackgroundIndexer(@NotNull SingleChronicleQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public synchronized boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+
+        try {
+            if (store == null) {
+                // carry on from the cycle being indexed when starting again.
+                int cycle = this.cycle == Integer.MIN_VALUE ? lastIndexedCycle() : this.cycle;
+                if (cycle == Integer.MAX_VALUE)
+                    return false;
+                if (!acquireStore(cycle)) {
+                    // it may have been deleted, look for the cycle to start from again.
+                    this.cycle = Integer.MIN_VALUE;
+                    return false;
+                }
+            }
+            if (position < 0)
+                findStart();
+            return scan();
+
+        } catch (Exception e) {
+            Jvm.warn().on(getClass(), "Unable to index cycle " + cycle + ", starting again", e);
+            releaseStore();
+            return false;
+        }
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MEDIUM;
+    }
+
+    private boolean acquireStore(int cycle) {
+        WireStore store = queue.storeForCycle(cycle, queue.epoch(), false);
+        if (store == null)
+            return false;
+        this.store = store;
+        this.cycle = cycle;
+        WireType wireType = queue.wireType();
+        this.wire = wireType.apply(store.bytes());
+        this.wireForIndex = wireType.apply(store.bytes());
+        if (queue.timeIndex())
+            this.timeIndex = TimeIndex.of(store.file(), queue.indexSpacing(), true, false);
+        this.position = -1;
+        return true;
+    }
+
+    private void releaseStore() {
+        if (wire != null)
+            wire.bytes().release();
+        if (wireForIndex != null)
+            wireForIndex.bytes().release();
+        wire = wireForIndex = null;
+        if (timeIndex != null)
+            timeIndex.close();
+        timeIndex = null;
+        if (store != null)
+            queue.release(store);
+        store = null;
+        position = -1;
+    }
+
+    /**
+     * @return the last cycle with index entries, so the cycles before it aren't scanned again, or
+     * the first cycle if none have entries.
+     */
+    private int lastIndexedCycle() throws ParseException {
+        int first = queue.firstCycle();
+        if (first == Integer.MAX_VALUE)
+            return first;
+        for (int c = queue.lastCycle(); c > first; c = queue.nextCycle(c, BACKWARD)) {
+            WireStore store = queue.storeForCycle(c, queue.epoch(), false);
+            if (store == null)
+                break;
+            try {
+                if (store instanceof SingleChronicleQueueStore
+                        && ((SingleChronicleQueueStore) store).indexing.nextEntryToBeIndexed() > 0)
+                    return c;
+            } finally {
+                queue.release(store);
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Moves to the last excerpt indexed in this cycle, or the first header if none have been or
+     * the cycle has no excerpts yet, in which case scan() moves on once the cycle has rolled.
+     */
+    private void findStart() {
+        long start = 0;
+        if (store instanceof SingleChronicleQueueStore) {
+            SCQIndexing indexing = ((SingleChronicleQueueStore) store).indexing;
+            start = Math.max(0, indexing.nextEntryToBeIndexed() - indexing.indexSpacing());
+        }
+        if (start > 0 && store.moveToIndexForRead(this, start) == ScanResult.FOUND) {
+            position = wire.bytes().readPosition();
+            sequence = start;
+        } else {
+            // the meta data before the first excerpt is skipped by scan().
+            position = 0;
+            sequence = 0;
+        }
+    }
+
+    private boolean scan() throws StreamCorruptedException, ParseException {
+        Bytes<?> bytes = wire.bytes();
+        long end = store.writePosition();
+        int count = 0;
+        boolean endOfCycle = false;
+        while (count < MAX_SCAN && position <= end) {
+            int header = bytes.readVolatileInt(position);
+            if (Wires.isEndOfFile(header)) {
+                endOfCycle = true;
+                break;
+            }
+            // not written or not complete yet.
+            if (header == 0 || !Wires.isReady(header))
+                break;
+            if (Wires.isReadyData(header)) {
+                // indexable() is true for excerpts which don't need an entry.
+                if (!store.indexable(sequence)) {
+                    store.setPositionForSequenceNumber(this, sequence, position);
+                    // the time it was indexed, which is never before it was written.
+                    if (timeIndex != null)
+                        timeIndex.record(sequence, TimeIndex.nowNanos(queue.time()));
+                }
+                sequence++;
+            }
+            position += 4 + Wires.lengthOf(header);
+            count++;
+        }
+
+        // an appender which died may not have written the EOF, so also move on when the queue
+        // has rolled and a later cycle exists.
+        if ((endOfCycle || (count == 0 && queue.cycle() > cycle)) && checkForNextCycle()) {
+            int next = queue.nextCycle(cycle, FORWARD);
+            if (next >= 0) {
+                releaseStore();
+                acquireStore(next);
+                return true;
+            }
+        }
+        return count > 0;
+    }
+
+    private boolean checkForNextCycle() {
+        long now = System.currentTimeMillis();
+        if (now < nextCycleCheckTime)
+            return false;
+        nextCycleCheckTime = now + NEXT_CYCLE_CHECK_MS;
+        return true;
+    }
+
+    @Override
+    public Wire wire() {
+        return wire;
+    }
+
+    @Override
+    public Wire wireForIndex() {
+        return wireForIndex;
+    }
+
+    @Override
+    public long timeoutMS() {
+        return queue.timeoutMS;
+    }
+
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        releaseStore();
+    }
+}
@@ -1,14 +1,16 @@
 package net.openhft.chronicle.queue.impl.single;
 
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.queue.ExcerptTailer;
 import net.openhft.chronicle.queue.RollCycle;
 import net.openhft.chronicle.wire.DocumentContext;
 import net.openhft.chronicle.wire.Wire;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.text.ParseException;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.NavigableSet;
 
 /**
@@ -44,7 +46,7 @@ public enum BinarySearch {
                 return findWithinCycle(key, c, startCycle, tailer, q, rollCycle);
 
             final NavigableSet<Long> cycles = q.listCyclesBetween(startCycle, endCycle);
-            final int cycle = (int) findCycleLinearSearch(cycles, key, c, tailer, q);
+            final int cycle = (int) findCycleBinarySearch(cycles, key, c, tailer, q);
 
             if (cycle == -1)
                 return -1;
@@ -55,39 +57,73 @@ public enum BinarySearch {
 
     }
 
-    private static long findCycleLinearSearch(@NotNull NavigableSet<Long> cycles, Wire key,
+    /**
+     * @return the last cycle whose first excerpt is not after the key, or -1 if there are no
+     * cycles.
+     */
+    private static long findCycleBinarySearch(@NotNull NavigableSet<Long> cycles, @NotNull Wire key,
                                               @NotNull Comparator<Wire> c,
                                               @NotNull ExcerptTailer tailer,
                                               @NotNull final SingleChronicleQueue queue) {
-
-        final Iterator<Long> iterator = cycles.iterator();
-        if (!iterator.hasNext())
+        final Long[] array = cycles.toArray(new Long[cycles.size()]);
+        if (array.length == 0)
             return -1;
-        final RollCycle rollCycle = queue.rollCycle();
-        long prevIndex = iterator.next();
-
-        while (iterator.hasNext()) {
 
-            final Long current = iterator.next();
-
-            final boolean b = tailer.moveToIndex(rollCycle.toIndex((int) (long) current, 0));
-            if (!b)
-                return prevIndex;
+        final long readPosition = key.bytes().readPosition();
+        final int lastCycle = (int) (long) array[array.length - 1];
+        long result = array[0];
+        int low = 1, high = array.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cycle = (int) (long) array[mid];
+            key.bytes().readPosition(readPosition);
+            final Integer compare = compareFirstExcerpt(cycle, cycle < lastCycle, key, c, tailer, queue);
+
+            // an empty cycle is treated as the end, as the linear search did.
+            if (compare == null || compare > 0) {
+                high = mid - 1;
+            } else if (compare < 0) {
+                result = cycle;
+                low = mid + 1;
+            } else {
+                return cycle;
+            }
+        }
+        return result;
+    }
 
+    /**
+     * Compares the first excerpt of a cycle to the key. The first excerpt of a closed cycle is
+     * cached by the queue so later searches don't need to read it.
+     *
+     * @return the comparison, or null if the cycle has no excerpts.
+     */
+    @Nullable
+    private static Integer compareFirstExcerpt(int cycle, boolean closed, @NotNull Wire key,
+                                               @NotNull Comparator<Wire> c,
+                                               @NotNull ExcerptTailer tailer,
+                                               @NotNull SingleChronicleQueue queue) {
+        byte[] first = closed ? queue.cachedFirstExcerpt(cycle) : null;
+        if (first == null) {
+            if (!tailer.moveToIndex(queue.rollCycle().toIndex(cycle, 0)))
+                return null;
             try (final DocumentContext dc = tailer.readingDocument()) {
-                final int compare = c.compare(dc.wire(), key);
-                if (compare == 0)
-                    return current;
-                else if (compare == 1)
-                    return prevIndex;
-                prevIndex = current;
+                if (!dc.isPresent())
+                    return null;
+                if (!closed)
+                    return c.compare(dc.wire(), key);
+
+                final Bytes<?> bytes = dc.wire().bytes();
+                final long position = bytes.readPosition();
+                first = new byte[Maths.toUInt31(bytes.readRemaining())];
+                bytes.read(first);
+                bytes.readPosition(position);
+                queue.cacheFirstExcerpt(cycle, first);
             }
         }
-
-        return prevIndex;
+        return c.compare(queue.wireType().apply(Bytes.wrapForRead(first)), key);
     }
 
-
     /**
      * @return The index if an exact match is found, an approximation in the form of -approximateIndex
      * or -1 if there was no searching to be done.
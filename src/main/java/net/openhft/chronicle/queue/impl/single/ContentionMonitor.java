@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.ContentionStats;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Collects the waits of the {@link ContentionPauser}s of a queue, and reports them from the event
+ * loop of the queue. The typical wait is shared by the pausers, so a thread which has only just
+ * started to wait knows how long the others have been waiting for.
+ */
+class ContentionMonitor implements EventHandler, ContentionStats {
+    private static final long STATS_INTERVAL_MS = 1000;
+    private static final long INITIAL_TYPICAL_WAIT_NANOS = 1_000;
+
+    @NotNull
+    private final Consumer<ContentionStats> onContentionStats;
+    private final AtomicLong contentionCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(WAIT_HISTOGRAM_BUCKETS);
+    private volatile long typicalWaitNanos = INITIAL_TYPICAL_WAIT_NANOS;
+    private long nextStatsTime;
+    private boolean closed = false;
+
+    ContentionMonitor(@NotNull Consumer<ContentionStats> onContentionStats) {
+        this.onContentionStats = onContentionStats;
+        this.nextStatsTime = System.currentTimeMillis() + STATS_INTERVAL_MS;
+    }
+
+    static int bucket(long nanos) {
+        return Math.min(64 - Long.numberOfLeadingZeros(nanos >> 10), WAIT_HISTOGRAM_BUCKETS - 1);
+    }
+
+    /**
+     * Called by a pauser once it has stopped waiting.
+     */
+    void onWait(long nanos) {
+        contentionCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        waitHistogram.incrementAndGet(bucket(nanos));
+        // a sample lost to a racing update doesn't matter for a moving average.
+        long typical = typicalWaitNanos;
+        typicalWaitNanos = typical + ((nanos - typical) >> 3);
+    }
+
+    @Override
+    public synchronized boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+
+        long now = System.currentTimeMillis();
+        if (now >= nextStatsTime) {
+            nextStatsTime = now + STATS_INTERVAL_MS;
+            onContentionStats.accept(this);
+        }
+        return false;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    synchronized void close() {
+        closed = true;
+    }
+
+    @Override
+    public long getAndClearContentionCount() {
+        return contentionCount.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearTotalWaitNanos() {
+        return totalWaitNanos.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearMaxWaitNanos() {
+        return maxWaitNanos.getAndSet(0);
+    }
+
+    @NotNull
+    @Override
+    public long[] getAndClearWaitHistogram() {
+        long[] histogram = new long[WAIT_HISTOGRAM_BUCKETS];
+        for (int i = 0; i < histogram.length; i++)
+            histogram[i] = waitHistogram.getAndSet(i, 0);
+        return histogram;
+    }
+
+    @Override
+    public long typicalWaitNanos() {
+        return typicalWaitNanos;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.threads.Pauser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A pauser for the wire of an appender or tailer, which waits for a header or index entry another
+ * thread has marked as not complete. <p> It spins, then yields, then parks for longer each time,
+ * with the spin and yield time scaled to the typical wait recently seen across the queue, so
+ * threads don't park when the header is held for about as long as it takes to write an excerpt,
+ * and don't burn a CPU when it is held for a long time. Each wait, from the first pause to the
+ * reset, is recorded with the {@link ContentionMonitor}. </p> <p> Like the wire it is used by, it
+ * is only used by one thread at a time. </p>
+ */
+class ContentionPauser implements Pauser {
+    static final long MIN_SPIN_NANOS = 1_000;
+    static final long MAX_SPIN_NANOS = 20_000;
+    static final long MAX_YIELD_NANOS = 200_000;
+    static final long MIN_PARK_NANOS = 10_000;
+    static final long MAX_PARK_NANOS = 1_000_000;
+
+    @NotNull
+    private final ContentionMonitor monitor;
+    private boolean waiting = false;
+    private long waitStart;
+    private long spinNanos, yieldNanos, parkNanos;
+    private long timePausedNanos, countPaused;
+    @Nullable
+    private volatile Thread parked;
+
+    ContentionPauser(@NotNull ContentionMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    @Override
+    public void reset() {
+        if (!waiting)
+            return;
+        waiting = false;
+        long wait = System.nanoTime() - waitStart;
+        timePausedNanos += wait;
+        monitor.onWait(wait);
+    }
+
+    @Override
+    public void pause() {
+        pause0(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void pause(long timeout, @NotNull TimeUnit timeUnit) throws TimeoutException {
+        if (pause0(timeUnit.toNanos(timeout)))
+            throw new TimeoutException();
+    }
+
+    /**
+     * @return true if it has waited for longer than timeoutNanos since the first pause.
+     */
+    private boolean pause0(long timeoutNanos) {
+        long now = System.nanoTime();
+        if (!waiting) {
+            waiting = true;
+            waitStart = now;
+            countPaused++;
+            long typical = monitor.typicalWaitNanos();
+            spinNanos = clamp(typical * 2, MIN_SPIN_NANOS, MAX_SPIN_NANOS);
+            yieldNanos = clamp(typical * 8, spinNanos, MAX_YIELD_NANOS);
+            parkNanos = MIN_PARK_NANOS;
+            return false;
+        }
+        long waited = now - waitStart;
+        if (waited >= timeoutNanos) {
+            // the caller may recover rather than reset, so the next pause starts a new wait.
+            reset();
+            return true;
+        }
+        if (waited < spinNanos)
+            return false;
+        if (waited < yieldNanos) {
+            Thread.yield();
+            return false;
+        }
+        parked = Thread.currentThread();
+        LockSupport.parkNanos(this, Math.min(parkNanos, timeoutNanos - waited));
+        parked = null;
+        parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        return false;
+    }
+
+    @Override
+    public void unpause() {
+        Thread thread = parked;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * @return the time spent waiting in milliseconds
+     */
+    @Override
+    public long timePaused() {
+        return timePausedNanos / 1_000_000;
+    }
+
+    @Override
+    public long countPaused() {
+        return countPaused;
+    }
+
+    /**
+     * @return whether it is between the first pause and the reset.
+     */
+    boolean isWaiting() {
+        return waiting;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "ContentionPauser{" +
+                "spinNanos=" + spinNanos +
+                ", yieldNanos=" + yieldNanos +
+                ", parkNanos=" + parkNanos +
+                '}';
+    }
+}
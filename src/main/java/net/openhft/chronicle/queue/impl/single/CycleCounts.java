@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.OS;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The number of excerpts in each cycle which has been rolled, kept in a file in the queue
+ * directory. <p> The file holds the number of records claimed, then a record of the count and
+ * the cycle for each cycle rolled. A record is claimed with a CAS, and the cycle is written last
+ * so a reader in another process never sees a partial record. Records are read once into a map.
+ * A count of -1 forgets the cycle, once its file has been deleted. </p>
+ */
+class CycleCounts implements Closeable {
+    static final String FILE_NAME = "cycle-counts.cq4c";
+    private static final long USED = 0;
+    private static final long HEADER_SIZE = 64;
+    private static final long RECORD_SIZE = 16;
+    private static final long CHUNK_SIZE = 1 << 20;
+
+    @NotNull
+    private final MappedBytes bytes;
+    private final Map<Integer, Long> counts = new ConcurrentHashMap<>();
+    private long recordsRead = 0;
+
+    private CycleCounts(@NotNull MappedBytes bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @param dir            of the queue
+     * @param createIfAbsent false to return null when no counts have been recorded.
+     * @param readOnly       to map the file read only
+     * @return the counts for the queue.
+     */
+    @Nullable
+    static CycleCounts of(@NotNull File dir, boolean createIfAbsent, boolean readOnly) {
+        File file = new File(dir, FILE_NAME);
+        if (!createIfAbsent && !file.exists())
+            return null;
+        try {
+            return new CycleCounts(MappedBytes.mappedBytes(file, CHUNK_SIZE, OS.pageSize(), readOnly));
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records the number of excerpts in a cycle which has been rolled.
+     */
+    synchronized void record(int cycle, long count) {
+        readRecords();
+        if (counts.containsKey(cycle))
+            return;
+        append(cycle, count);
+        counts.put(cycle, count);
+    }
+
+    /**
+     * Forgets the count of a cycle whose file has been deleted, so it is counted again if the
+     * cycle is created again.
+     */
+    synchronized void forget(int cycle) {
+        readRecords();
+        if (!counts.containsKey(cycle))
+            return;
+        append(cycle, -1);
+        counts.remove(cycle);
+    }
+
+    private void append(int cycle, long count) {
+        long record;
+        do {
+            record = bytes.readVolatileLong(USED);
+        } while (!bytes.compareAndSwapLong(USED, record, record + 1));
+        long offset = HEADER_SIZE + record * RECORD_SIZE;
+        bytes.writeLong(offset, count);
+        bytes.writeOrderedInt(offset + 8, cycle + 1);
+    }
+
+    /**
+     * @return the number of excerpts in a cycle which has been rolled, or -1 if not recorded.
+     */
+    long count(int cycle) {
+        Long count = counts.get(cycle);
+        if (count == null) {
+            synchronized (this) {
+                readRecords();
+            }
+            count = counts.get(cycle);
+        }
+        return count == null ? -1 : count;
+    }
+
+    private void readRecords() {
+        long used = bytes.readVolatileLong(USED);
+        for (; recordsRead < used; recordsRead++) {
+            long offset = HEADER_SIZE + recordsRead * RECORD_SIZE;
+            int cyclePlusOne = bytes.readVolatileInt(offset + 8);
+            // claimed but not written yet.
+            if (cyclePlusOne == 0)
+                break;
+            long count = bytes.readLong(offset);
+            if (count < 0)
+                counts.remove(cyclePlusOne - 1);
+            else
+                counts.put(cyclePlusOne - 1, count);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        bytes.release();
+    }
+}
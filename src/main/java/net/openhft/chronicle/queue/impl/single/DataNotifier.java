@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Wakes the tailers of a queue parked in awaitData when an appender of the same queue in this
+ * process publishes an excerpt. Appenders only read a volatile count when no tailer is waiting.
+ * Excerpts appended by other processes are seen when a parked tailer next wakes up.
+ */
+class DataNotifier {
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Set<Thread> waiters = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Parks the current thread for up to {@code nanos}, unless there is data once it has
+     * registered to be woken.
+     */
+    void await(long nanos, @NotNull BooleanSupplier hasData) {
+        Thread thread = Thread.currentThread();
+        waiters.add(thread);
+        waiting.incrementAndGet();
+        try {
+            // check again after registering, so a signal in between isn't missed.
+            if (!hasData.getAsBoolean())
+                LockSupport.parkNanos(this, nanos);
+        } finally {
+            waiting.decrementAndGet();
+            waiters.remove(thread);
+        }
+    }
+
+    void signal() {
+        if (waiting.get() == 0)
+            return;
+        for (Thread thread : waiters)
+            LockSupport.unpark(thread);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueue.SUFFIX;
+
+/**
+ * The cycles with a file in the directory of a queue. <p> Without a watch, each refresh lists
+ * the directory. With a watch, the directory is listed once and each refresh only applies the
+ * files created or deleted since, so finding the first, last or next cycle doesn't depend on
+ * the number of files retained. Files created by another process are seen once the file system
+ * reports them. With inotify on Linux this is usually well under a millisecond, but the JDK polls
+ * for changes on other platforms, such as macOS, so a cycle created by another process can be
+ * seen seconds late. </p> <p> The cycles are an immutable snapshot, replaced when they change,
+ * so readers need no copy. The cycles whose file has been deleted, or which only have a time
+ * index left, are passed to a listener after the refresh, so what is kept beside the cycle file
+ * can be removed with it. </p>
+ */
+class DirectoryListing implements Closeable {
+    @NotNull
+    private final File dir;
+    @NotNull
+    private final ToIntFunction<String> cycleForName;
+    @NotNull
+    private final IntConsumer onDeleted;
+    private final boolean watch;
+    // found deleted by the refresh, guarded by this.
+    private final List<Integer> deleted = new ArrayList<>();
+    // replaced rather than changed, guarded by this.
+    @NotNull
+    private volatile NavigableSet<Long> cycles = Collections.emptyNavigableSet();
+    @Nullable
+    private WatchService watchService;
+    @Nullable
+    private WatchKey watchKey;
+    private boolean closed = false;
+
+    /**
+     * @param dir          of the queue
+     * @param cycleForName the cycle of a file name, without the suffix
+     * @param onDeleted    called with each cycle found to be deleted, not holding a lock.
+     * @param watch        true to watch the directory for changes rather than list it each time.
+     */
+    DirectoryListing(@NotNull File dir, @NotNull ToIntFunction<String> cycleForName,
+                     @NotNull IntConsumer onDeleted, boolean watch) {
+        this.dir = dir;
+        this.cycleForName = cycleForName;
+        this.onDeleted = onDeleted;
+        this.watch = watch;
+    }
+
+    /**
+     * Brings the cycles up to date with the directory.
+     */
+    void refresh() {
+        Integer[] deleted;
+        synchronized (this) {
+            refresh0();
+            if (this.deleted.isEmpty())
+                return;
+            deleted = this.deleted.toArray(new Integer[0]);
+            this.deleted.clear();
+        }
+        for (int cycle : deleted)
+            onDeleted.accept(cycle);
+    }
+
+    private void refresh0() {
+        if (closed)
+            return;
+        if (watch && (watchKey != null || register())) {
+            applyEvents();
+            return;
+        }
+        listDirectory();
+    }
+
+    private boolean register() {
+        if (!dir.isDirectory())
+            return false;
+        try {
+            if (watchService == null)
+                watchService = dir.toPath().getFileSystem().newWatchService();
+            watchKey = dir.toPath().register(watchService, ENTRY_CREATE, ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            Jvm.warn().on(getClass(), "Unable to watch " + dir + ", listing it instead", e);
+            closeWatchService();
+            return false;
+        }
+        // anything created from here on is reported by the watch.
+        listDirectory();
+        return true;
+    }
+
+    private void applyEvents() {
+        assert watchKey != null && watchService != null;
+        WatchKey key;
+        try {
+            key = watchService.poll();
+        } catch (ClosedWatchServiceException e) {
+            return;
+        }
+        if (key == null)
+            return;
+        boolean overflow = false;
+        TreeSet<Long> changed = null;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            String name = ((Path) event.context()).getFileName().toString();
+            if (!name.endsWith(SUFFIX))
+                continue;
+            int cycle = cycleForName.applyAsInt(name.substring(0, name.length() - SUFFIX.length()));
+            if (changed == null)
+                changed = new TreeSet<>(cycles);
+            if (event.kind() == ENTRY_CREATE) {
+                changed.add((long) cycle);
+            } else {
+                changed.remove((long) cycle);
+                deleted.add(cycle);
+            }
+        }
+        if (changed != null)
+            cycles = Collections.unmodifiableNavigableSet(changed);
+        if (!key.reset()) {
+            // the directory has gone, watch it again if it is created again.
+            watchKey = null;
+            cycles = Collections.emptyNavigableSet();
+        } else if (overflow) {
+            listDirectory();
+        }
+    }
+
+    private void listDirectory() {
+        final NavigableSet<Long> cycles = new TreeSet<>();
+        final List<Integer> timeIndexed = new ArrayList<>();
+        final String[] files = dir.list();
+        if (files != null) {
+            for (String file : files) {
+                if (file.endsWith(SUFFIX))
+                    cycles.add((long) cycleForName.applyAsInt(file.substring(0, file.length() - SUFFIX.length())));
+                else if (file.endsWith(TimeIndex.SUFFIX))
+                    timeIndexed.add(cycleForName.applyAsInt(file.substring(0, file.length() - TimeIndex.SUFFIX.length())));
+            }
+        }
+        for (Long cycle : this.cycles) {
+            if (!cycles.contains(cycle))
+                deleted.add(cycle.intValue());
+        }
+        for (Integer cycle : timeIndexed) {
+            if (!cycles.contains((long) cycle))
+                deleted.add(cycle);
+        }
+        this.cycles = Collections.unmodifiableNavigableSet(cycles);
+    }
+
+    /**
+     * Adds a cycle this process has created the file for, without waiting for a refresh.
+     */
+    void onFileCreated(int cycle) {
+        if (cycles.contains((long) cycle))
+            return;
+        synchronized (this) {
+            NavigableSet<Long> cycles = new TreeSet<>(this.cycles);
+            cycles.add((long) cycle);
+            this.cycles = Collections.unmodifiableNavigableSet(cycles);
+        }
+    }
+
+    /**
+     * @return the cycles as of the last refresh, in order. This snapshot never changes.
+     */
+    @NotNull
+    NavigableSet<Long> cycles() {
+        return cycles;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        closeWatchService();
+    }
+
+    private void closeWatchService() {
+        watchKey = null;
+        if (watchService == null)
+            return;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            Jvm.debug().on(getClass(), e);
+        }
+        watchService = null;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import com.sun.jna.Native;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Allocates the disk blocks of a file with the Linux fallocate call, which allocates the holes
+ * in a range and extends the file if needed, but never changes data already in the file. <p> It
+ * needs JNA, and a file system which supports it. </p>
+ */
+final class Fallocate {
+    private static final int O_WRONLY = 1;
+    private static final boolean AVAILABLE;
+
+    static {
+        boolean available = false;
+        if (OS.isLinux() && OS.is64Bit()) {
+            try {
+                Native.register(Fallocate.class, "c");
+                available = true;
+            } catch (Throwable t) {
+                Jvm.debug().on(Fallocate.class, "Unable to call fallocate, files will be extended instead", t);
+            }
+        }
+        AVAILABLE = available;
+    }
+
+    private Fallocate() {
+    }
+
+    private static native int open(String path, int flags);
+
+    private static native int fallocate(int fd, int mode, long offset, long length);
+
+    private static native int close(int fd);
+
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * @return the file descriptor of the file opened for writing.
+     */
+    static int open(@NotNull File file) throws IOException {
+        if (!AVAILABLE)
+            throw new IOException("fallocate is not available");
+        int fd = open(file.getAbsolutePath(), O_WRONLY);
+        if (fd < 0)
+            throw new IOException("Unable to open " + file + ", errno " + Native.getLastError());
+        return fd;
+    }
+
+    /**
+     * Allocates offset..offset + length of the file.
+     */
+    static void allocate(int fd, long offset, long length) throws IOException {
+        if (fallocate(fd, 0, offset, length) != 0)
+            throw new IOException("fallocate failed, errno " + Native.getLastError());
+    }
+
+    static void release(int fd) {
+        if (fd >= 0)
+            close(fd);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.impl.WireStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Allocates the disk blocks of cycle files before they are written to, so the appenders don't
+ * stall on the file system allocating them when they first touch a page of a sparse file. <p>
+ * Cycle files prepared ahead of time can be created with a number of bytes already allocated, and
+ * this keeps the file of the current cycle allocated ahead of its write position, from the event
+ * loop of the queue. </p> <p> An appender in this or another process may be writing anywhere past
+ * the write position, so nothing is written within the file. The blocks are allocated with {@link
+ * Fallocate}, which never changes data, or where that isn't available, zeros are appended to
+ * extend the file, which leaves the holes already in the file sparse. </p>
+ */
+class FilePreallocator implements EventHandler {
+    private static final int ZEROS_SIZE = 1 << 20;
+    // how much to allocate in one action, so other handlers of the event loop aren't held up.
+    private static final long MAX_PER_ACTION = 16 << 20;
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(ZEROS_SIZE);
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final long aheadBytes;
+    private int storeCycle = Integer.MIN_VALUE;
+    @Nullable
+    private WireStore store;
+    // the file descriptor for fallocate, or -1 to append to the channel.
+    private int fd = -1;
+    @Nullable
+    private FileChannel channel;
+    private long allocatedTo;
+    private boolean closed = false;
+
+    FilePreallocator(@NotNull SingleChronicleQueue queue, long aheadBytes) {
+        this.queue = queue;
+        this.aheadBytes = aheadBytes;
+    }
+
+    /**
+     * Creates the file with the first {@code bytes} allocated. If another process creates the file
+     * first, theirs is kept. The file is written under another name and linked in, so no other
+     * process can see it part written.
+     *
+     * @return true if the file was created.
+     */
+    static boolean createAllocated(@NotNull File file, long bytes) {
+        Path path = file.toPath();
+        Path tmp = null;
+        try {
+            tmp = createTemp(file, bytes);
+            // unlike a rename, a link fails rather than replacing a file created in the meantime.
+            Files.createLink(path, tmp);
+            return true;
+
+        } catch (FileAlreadyExistsException e) {
+            return false;
+
+        } catch (IOException | UnsupportedOperationException e) {
+            Jvm.warn().on(FilePreallocator.class, "Unable to preallocate " + file + ", it will be sparse", e);
+            return false;
+
+        } finally {
+            try {
+                if (tmp != null)
+                    Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                Jvm.warn().on(FilePreallocator.class, "Unable to delete " + tmp, e);
+            }
+        }
+    }
+
+    /**
+     * Creates a file beside the cycle file, under a name no reader of the queue looks for, with the
+     * first {@code bytes} allocated.
+     *
+     * @return the path of the temporary file, which the caller deletes.
+     */
+    @NotNull
+    static Path createTemp(@NotNull File file, long bytes) throws IOException {
+        Path tmp = Files.createTempFile(file.toPath().getParent(), file.getName() + ".", ".tmp");
+        try (FileChannel fc = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            writeZeros(fc, 0, bytes);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return tmp;
+    }
+
+    private static void writeZeros(@NotNull FileChannel fc, long from, long to) throws IOException {
+        ByteBuffer zeros = ZEROS.duplicate();
+        for (long pos = from; pos < to; ) {
+            zeros.clear();
+            zeros.limit((int) Math.min(ZEROS_SIZE, to - pos));
+            pos += fc.write(zeros, pos);
+        }
+    }
+
+    @Override
+    public synchronized boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+
+        int cycle = queue.cycle();
+        if (cycle != storeCycle && !follow(cycle))
+            return false;
+        if (store == null || (fd < 0 && channel == null))
+            return false;
+
+        long writePosition = store.writePosition();
+        // the appenders have caught up with the allocation, so carry on from where they are.
+        if (allocatedTo < writePosition)
+            allocatedTo = writePosition;
+        long target = Math.min(writePosition + aheadBytes, allocatedTo + MAX_PER_ACTION);
+        if (allocatedTo >= target)
+            return false;
+        try {
+            if (fd >= 0) {
+                Fallocate.allocate(fd, allocatedTo, target - allocatedTo);
+            } else if (channel != null) {
+                // appended, so nothing written to the file by an appender is overwritten.
+                ByteBuffer zeros = ZEROS.duplicate();
+                for (long size = channel.size(); size < target; size = channel.size()) {
+                    zeros.clear();
+                    zeros.limit((int) Math.min(ZEROS_SIZE, target - size));
+                    channel.write(zeros);
+                }
+            }
+            allocatedTo = target;
+        } catch (IOException e) {
+            Jvm.warn().on(getClass(), "Unable to preallocate " + store.file() + ", stopping for this cycle", e);
+            allocatedTo = Long.MAX_VALUE;
+        }
+        return true;
+    }
+
+    private boolean follow(int cycle) {
+        releaseStore();
+        WireStore store = queue.storeForCycle(cycle, queue.epoch(), false);
+        if (store == null)
+            return false;
+        File file = store.file();
+        try {
+            if (file == null)
+                throw new IOException("The store of cycle " + cycle + " has no file");
+            if (Fallocate.isAvailable())
+                fd = Fallocate.open(file);
+            else
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.APPEND);
+            // the file grows sparse, so the chunk being written may not be allocated yet.
+            allocatedTo = store.writePosition();
+        } catch (IOException e) {
+            Jvm.warn().on(getClass(), "Unable to preallocate " + file, e);
+            queue.release(store);
+            // don't retry until the next cycle.
+            storeCycle = cycle;
+            return false;
+        }
+        this.store = store;
+        this.storeCycle = cycle;
+        return true;
+    }
+
+    private void releaseStore() {
+        storeCycle = Integer.MIN_VALUE;
+        Fallocate.release(fd);
+        fd = -1;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                Jvm.debug().on(getClass(), "Unable to close the channel of " + store, e);
+            }
+            channel = null;
+        }
+        if (store != null) {
+            queue.release(store);
+            store = null;
+        }
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        releaseStore();
+    }
+}
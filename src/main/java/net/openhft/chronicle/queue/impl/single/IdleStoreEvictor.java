@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.impl.WireStorePool;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Unmaps the least recently released stores kept by the pool from the event loop, so the
+ * threads releasing them don't pay for this.
+ */
+class IdleStoreEvictor implements EventHandler {
+    @NotNull
+    private final WireStorePool pool;
+
+    IdleStoreEvictor(@NotNull WireStorePool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (pool.isClosed())
+            throw new InvalidEventHandlerException();
+        return pool.evictIdle();
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Maths;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Copies of the full secondary index arrays of the stores of a queue, shared by all its tailers.
+ * <p> Once every slot of a secondary index array is used, it can only change by a hole being
+ * filled in, and a hole only means a longer scan, so a copy on the heap can be read instead of
+ * binding a LongArrayValues to the mapped file for each thread. Arrays are keyed by the cycle and
+ * their address, so they are still found after the store of the cycle is released and acquired
+ * again. Each array has one slot it can be cached in, and replaces what was there. Entries are immutable, so are safe to publish with a
+ * race. </p>
+ */
+class IndexCache {
+    @NotNull
+    private final Entry[] entries;
+    private final int mask;
+
+    /**
+     * @param size the number of arrays to cache, rounded up to a power of 2.
+     */
+    IndexCache(int size) {
+        int capacity = (int) Maths.nextPower2(size, 1L);
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return a copy of the secondary index array at this address of the cycle, or null if not
+     * cached.
+     */
+    @Nullable
+    long[] get(int cycle, long address) {
+        Entry entry = entries[slot(cycle, address)];
+        return entry != null && entry.cycle == cycle && entry.address == address ? entry.values : null;
+    }
+
+    void put(int cycle, long address, @NotNull long[] values) {
+        entries[slot(cycle, address)] = new Entry(cycle, address, values);
+    }
+
+    /**
+     * Drops the arrays of a cycle, once its file is deleted, as a new file for the cycle would have
+     * different arrays at the same addresses.
+     */
+    void forget(int cycle) {
+        for (int i = 0; i < entries.length; i++) {
+            Entry entry = entries[i];
+            if (entry != null && entry.cycle == cycle)
+                entries[i] = null;
+        }
+    }
+
+    private int slot(int cycle, long address) {
+        return Maths.hash32(cycle * 31L + address) & mask;
+    }
+
+    static final class Entry {
+        final int cycle;
+        final long address;
+        final long[] values;
+
+        Entry(int cycle, long address, long[] values) {
+            this.cycle = cycle;
+            this.address = address;
+            this.values = values;
+        }
+    }
+}
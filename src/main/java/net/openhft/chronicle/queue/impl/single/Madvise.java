@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import com.sun.jna.Native;
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.bytes.MappedBytesStore;
+import net.openhft.chronicle.bytes.MappedFile;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.queue.MadviseHint;
+import net.openhft.chronicle.queue.impl.WireStore;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Passes {@link MadviseHint}s for the mapped cycle files to the OS. <p> Each chunk of a mapped
+ * file is mapped separately, so advice is given a chunk at a time, only for chunks which are
+ * already mapped by the reader giving it. </p> <p> This needs JNA, which is an optional dependency,
+ * so no advice is given without it. </p>
+ */
+final class Madvise {
+    static final int MADV_SEQUENTIAL = 2;
+    static final int MADV_WILLNEED = 3;
+    static final int MADV_DONTNEED = 4;
+    static final int MADV_HUGEPAGE = 14;
+    static final int MADV_COLD = 20;
+    private static final boolean AVAILABLE;
+    // MADV_COLD needs Linux 5.4
+    private static volatile boolean coldSupported = true;
+
+    static {
+        boolean available = false;
+        if (OS.isLinux() && OS.is64Bit()) {
+            try {
+                Native.register(Madvise.class, "c");
+                available = true;
+            } catch (Throwable t) {
+                Jvm.warn().on(Madvise.class, "Unable to call madvise, the hints will be ignored", t);
+            }
+        }
+        AVAILABLE = available;
+    }
+
+    private Madvise() {
+    }
+
+    private static native int madvise(long address, long length, int advice);
+
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Advises from..to, clipped to the chunk mapped for {@code from}.
+     *
+     * @return true if the advice was taken.
+     */
+    static boolean advise(@NotNull MappedBytes bytes, long from, long to, int advice) {
+        if (!AVAILABLE)
+            return false;
+        int pageSize = OS.pageSize();
+        from -= from % pageSize;
+        MappedFile file = bytes.mappedFile();
+        long chunkSize = file.chunkSize();
+        to = Math.min(to, (from / chunkSize + 1) * chunkSize);
+        if (from >= to)
+            return false;
+        MappedBytesStore store;
+        try {
+            store = file.acquireByteStore(from);
+        } catch (IOException | RuntimeException e) {
+            Jvm.debug().on(Madvise.class, "Unable to advise " + file.file() + " at " + from, e);
+            return false;
+        }
+        try {
+            if (advice == MADV_COLD && coldSupported) {
+                if (madvise(store.address(from), to - from, MADV_COLD) == 0)
+                    return true;
+                coldSupported = false;
+            }
+            return madvise(store.address(from), to - from, advice == MADV_COLD ? MADV_DONTNEED : advice) == 0;
+        } finally {
+            store.release();
+        }
+    }
+
+    /**
+     * Gives the advice for one reader of a queue as it moves through a cycle. This is called for
+     * every excerpt, so it only does anything once the reader has moved on by a step or into
+     * another chunk.
+     */
+    static final class Advisor {
+        private static final long STEP = 1 << 20;
+
+        private final boolean sequential, willNeed, dontNeedBehind, hugePage;
+        // don't retain the bytes, as with the PretoucherState.
+        private int bytesHashcode = -1;
+        private long chunk = -1;
+        private long nextPosition = Long.MIN_VALUE;
+        private long advisedTo, releasedTo;
+
+        Advisor(@NotNull Set<MadviseHint> hints) {
+            this.sequential = hints.contains(MadviseHint.SEQUENTIAL);
+            this.willNeed = hints.contains(MadviseHint.WILL_NEED);
+            this.dontNeedBehind = hints.contains(MadviseHint.DONT_NEED_BEHIND);
+            this.hugePage = hints.contains(MadviseHint.HUGE_PAGE);
+        }
+
+        /**
+         * @return an advisor for the hints, or null if there is nothing to do.
+         */
+        static Advisor of(@NotNull Set<MadviseHint> hints) {
+            return hints.isEmpty() || !isAvailable() ? null : new Advisor(hints);
+        }
+
+        private boolean moved(@NotNull MappedBytes bytes, long position) {
+            int hashcode = System.identityHashCode(bytes);
+            if (hashcode != bytesHashcode) {
+                bytesHashcode = hashcode;
+                chunk = -1;
+                advisedTo = releasedTo = 0;
+            } else if (position < nextPosition) {
+                return false;
+            }
+            long chunkSize = bytes.mappedFile().chunkSize();
+            nextPosition = Math.min(position + STEP, (position / chunkSize + 1) * chunkSize);
+            return true;
+        }
+
+        /**
+         * Called by a tailer after reading the excerpt at position.
+         */
+        void onRead(@NotNull MappedBytes bytes, long position, @NotNull WireStore store) {
+            if (!moved(bytes, position))
+                return;
+            long chunkSize = bytes.mappedFile().chunkSize();
+            long chunk = position / chunkSize;
+            long chunkStart = chunk * chunkSize;
+            boolean catchingUp = store.writePosition() - position > chunkSize;
+            if (chunk != this.chunk) {
+                this.chunk = chunk;
+                if (hugePage)
+                    advise(bytes, chunkStart, chunkStart + chunkSize, MADV_HUGEPAGE);
+                if (sequential && catchingUp)
+                    advise(bytes, chunkStart, chunkStart + chunkSize, MADV_SEQUENTIAL);
+            }
+            if (dontNeedBehind && catchingUp) {
+                // leave some behind for the excerpts just read.
+                long from = Math.max(releasedTo, chunkStart);
+                long to = position - Math.min(STEP, chunkSize / 4);
+                if (to > from && advise(bytes, from, to, MADV_COLD))
+                    releasedTo = to;
+            }
+        }
+
+        /**
+         * Called by the pretoucher, before it touches from position to position + length.
+         */
+        void onPretouch(@NotNull MappedBytes bytes, long position, long length) {
+            if (!moved(bytes, position))
+                return;
+            long chunkSize = bytes.mappedFile().chunkSize();
+            long chunk = position / chunkSize;
+            if (chunk != this.chunk) {
+                this.chunk = chunk;
+                if (hugePage)
+                    advise(bytes, chunk * chunkSize, (chunk + 1) * chunkSize, MADV_HUGEPAGE);
+            }
+            long from = Math.max(advisedTo, position);
+            // only as far as the end of the chunk, the next is advised once the pretoucher is in it.
+            long to = Math.min(position + length, (from / chunkSize + 1) * chunkSize);
+            if (willNeed && to > from && advise(bytes, from, to, MADV_WILLNEED))
+                advisedTo = to;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.BytesRingBufferStats;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.bytes.NativeBytesStore;
+import net.openhft.chronicle.core.Maths;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An off heap ring buffer of variable length records, which can be written to by many threads
+ * and is drained by a single thread. <p> Writers claim space with a CAS on the write claim,
+ * copy their record in and publish it by writing the header last. The reader only ever reads
+ * records in claim order, so a record is not seen until all the records before it are
+ * published. Consumed space is zeroed before it is given back to the writers. </p>
+ */
+class MultiWriterBytesRingBuffer implements BytesRingBufferStats {
+    static final int META_DATA = 1 << 30;
+    static final int PAD_TO_CACHE_ALIGN = 1 << 29;
+    private static final int READY = 1 << 31;
+    private static final int PADDING = 1 << 28;
+    private static final int LENGTH_MASK = PADDING - 1;
+    private static final long MAX_CAPACITY = 1L << 28;
+
+    @NotNull
+    private final NativeBytesStore<Void> store;
+    private final long capacity;
+    private final long mask;
+    private final long maxMessageSize;
+    private final AtomicLong writeClaim = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong missedWriteCount = new AtomicLong();
+    private final AtomicLong contentionCount = new AtomicLong();
+    private volatile long readPosition = 0;
+    private volatile long minRemaining;
+    private volatile boolean closed = false;
+
+    MultiWriterBytesRingBuffer(long capacity) {
+        this.capacity = Math.min(MAX_CAPACITY, Maths.nextPower2(capacity, 4L << 10));
+        this.mask = this.capacity - 1;
+        this.maxMessageSize = this.capacity / 4;
+        this.minRemaining = this.capacity;
+        this.store = NativeBytesStore.nativeStoreWithFixedCapacity(this.capacity);
+        // the headers must start as zero, so the reader knows they have not been written.
+        store.zeroOut(0, this.capacity);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Copies the remaining bytes into the ring buffer.
+     *
+     * @param bytes to copy.
+     * @param flags any combination of {@link #META_DATA} and {@link #PAD_TO_CACHE_ALIGN}
+     * @return true if the record was added, false if there is not enough space at the moment.
+     * @throws IllegalArgumentException if the record could never fit in this ring buffer.
+     */
+    boolean offer(@NotNull BytesStore bytes, int flags) throws IllegalArgumentException {
+        if (closed)
+            throw new IllegalStateException("The ring buffer has been closed");
+        long length = bytes.readRemaining();
+        if (length > maxMessageSize)
+            throw new IllegalArgumentException("A message of " + length + " bytes is too large " +
+                    "for a ring buffer with a capacity of " + capacity + " bytes, increase the bufferCapacity");
+
+        long size = align(4 + length);
+        for (; ; ) {
+            long claim = writeClaim.get();
+            long offset = claim & mask;
+            long toEnd = capacity - offset;
+            // a record is never split, the end of the buffer is padded out instead.
+            long needed = size <= toEnd ? size : toEnd + size;
+            long remaining = capacity - (claim + needed - readPosition);
+            if (remaining < 0) {
+                missedWriteCount.incrementAndGet();
+                return false;
+            }
+            if (!writeClaim.compareAndSet(claim, claim + needed)) {
+                contentionCount.incrementAndGet();
+                continue;
+            }
+            if (remaining < minRemaining)
+                minRemaining = remaining;
+
+            if (needed > size) {
+                store.writeOrderedInt(offset, READY | PADDING | (int) (toEnd - 4));
+                offset = 0;
+            }
+            store.write(offset + 4, bytes, bytes.readPosition(), length);
+            store.writeOrderedInt(offset, READY | flags | (int) length);
+            writeCount.incrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Passes up to {@code maxRecords} published records to the handler, in the order they were
+     * claimed.
+     *
+     * @param handler    to pass the records to
+     * @param maxRecords to drain in one call.
+     * @return the number of records drained.
+     */
+    int drain(@NotNull RecordHandler handler, int maxRecords) {
+        int count = 0;
+        long pos = readPosition;
+        while (count < maxRecords) {
+            long offset = pos & mask;
+            int header = store.readVolatileInt(offset);
+            if ((header & READY) == 0)
+                break;
+            int length = header & LENGTH_MASK;
+            long size = align(4 + length);
+            try {
+                if ((header & PADDING) == 0) {
+                    count++;
+                    handler.onRecord(store, offset + 4, length, header & (META_DATA | PAD_TO_CACHE_ALIGN));
+                }
+            } finally {
+                store.zeroOut(offset, offset + size);
+                pos += size;
+                readPosition = pos;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return true if every record claimed has been drained.
+     */
+    boolean isEmpty() {
+        return readPosition == writeClaim.get();
+    }
+
+    void close() {
+        if (closed)
+            return;
+        closed = true;
+        store.release();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the lowest number of bytes free after a write since this was last called.
+     */
+    @Override
+    public long minNumberOfWriteBytesRemaining() {
+        long min = minRemaining;
+        minRemaining = capacity;
+        return min;
+    }
+
+    @Override
+    public long capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getAndClearWriteCount() {
+        return writeCount.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearMissedWriteCount() {
+        return missedWriteCount.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearContentionCount() {
+        return contentionCount.getAndSet(0);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "MultiWriterBytesRingBuffer{" +
+                "capacity=" + capacity +
+                ", writeClaim=" + writeClaim.get() +
+                ", readPosition=" + readPosition +
+                '}';
+    }
+
+    @FunctionalInterface
+    interface RecordHandler {
+        void onRecord(@NotNull BytesStore store, long offset, int length, int flags);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.impl.ExcerptContext;
+import net.openhft.chronicle.queue.impl.WireStore;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Creates, maps, initialises the index and pretouches the file of the next cycle shortly before
+ * the queue rolls, from the event loop of the queue. The file is prepared under a temporary name
+ * which no reader looks for, and the appender rolling to the cycle links it into place, so no
+ * tailer in this or another process can see the cycle before it is written to.
+ */
+class NextCyclePreparer implements EventHandler {
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final long leadTimeMS;
+    private int preparedCycle = Integer.MIN_VALUE;
+    @Nullable
+    private WireStore preparedStore;
+    @Nullable
+    private Path preparedPath;
+    // the file an appender can link into place, written before readyCycle.
+    @Nullable
+    private volatile Path readyPath;
+    private volatile int readyCycle = Integer.MIN_VALUE;
+    private boolean closed = false;
+
+    NextCyclePreparer(@NotNull SingleChronicleQueue queue, long leadTimeMS) {
+        this.queue = queue;
+        int length = queue.rollCycle().length();
+        // never prepare more than half a cycle ahead.
+        this.leadTimeMS = Math.min(leadTimeMS, length / 2);
+    }
+
+    @Override
+    public synchronized boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+
+        int cycle = queue.cycle();
+        if (preparedStore != null) {
+            // once the file is in place, or the cycle has passed unwritten, it is no longer needed.
+            if (cycle > preparedCycle || queue.fileForCycle(preparedCycle).exists())
+                releasePrepared();
+            return false;
+        }
+
+        int next = cycle + 1;
+        if (next <= preparedCycle || rollTime(next) - queue.time().currentTimeMillis() > leadTimeMS)
+            return false;
+
+        prepare(next);
+        return true;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    private long rollTime(int cycle) {
+        return queue.epoch() + (long) cycle * queue.rollCycle().length();
+    }
+
+    /**
+     * @return true if the file of the cycle is prepared and can be linked into place.
+     */
+    boolean isReady(int cycle) {
+        return readyCycle == cycle;
+    }
+
+    /**
+     * Links the prepared file of the cycle into place. This is called by an appender about to
+     * create the file, so it doesn't wait for the event loop.
+     *
+     * @return true if the file is now in place, false if the appender should create it.
+     */
+    boolean publish(int cycle, @NotNull File file) {
+        if (readyCycle != cycle)
+            return false;
+        Path path = readyPath;
+        if (path == null)
+            return false;
+        try {
+            // unlike a rename, a link fails rather than replacing a file created in the meantime.
+            Files.createLink(file.toPath(), path);
+            return true;
+
+        } catch (FileAlreadyExistsException e) {
+            return true;
+
+        } catch (IOException | UnsupportedOperationException e) {
+            // including the file having been released in the meantime.
+            Jvm.debug().on(getClass(), "Unable to link " + path + " to " + file, e);
+            return false;
+        }
+    }
+
+    private void prepare(int cycle) {
+        preparedCycle = cycle;
+        File file = queue.fileForCycle(cycle);
+        // created by another process.
+        if (file.exists())
+            return;
+        long start = System.nanoTime();
+        WireStore store;
+        try {
+            // off the appender's thread, unlike a file the appender creates on roll.
+            preparedPath = FilePreallocator.createTemp(file, queue.preallocateBytes());
+            store = queue.createPreparedStore(cycle, preparedPath.toFile());
+        } catch (Exception e) {
+            Jvm.warn().on(getClass(), "Unable to prepare the cycle " + cycle + ", the appender will do this on roll", e);
+            deletePrepared();
+            return;
+        }
+        preparedStore = store;
+
+        WireType wireType = queue.wireType();
+        Wire wire = wireType.apply(store.bytes());
+        Wire wireForIndex = wireType.apply(store.bytes());
+        try {
+            // creates the index2index and the first index as the first appender would.
+            store.sequenceForPosition(new PreparerContext(wire, wireForIndex, queue.timeoutMS), store.writePosition(), true);
+            pretouch((MappedBytes) wire.bytes(), store.writePosition());
+        } catch (Exception e) {
+            Jvm.warn().on(getClass(), "Unable to prepare the cycle " + cycle + ", the appender will do this on roll", e);
+            releasePrepared();
+            return;
+        } finally {
+            wire.bytes().release();
+            wireForIndex.bytes().release();
+        }
+        readyPath = preparedPath;
+        readyCycle = cycle;
+        if (Jvm.isDebugEnabled(getClass()))
+            Jvm.debug().on(getClass(), "Prepared " + file + " in " + (System.nanoTime() - start) / 1000 + " us");
+    }
+
+    private void pretouch(@NotNull MappedBytes bytes, long from) {
+        int pageSize = OS.pageSize();
+        long end = from + queue.overlapSize();
+        for (long offset = from - from % pageSize; offset < end; offset += pageSize) {
+            if (Thread.currentThread().isInterrupted())
+                break;
+            bytes.compareAndSwapLong(offset, 0L, 0L);
+        }
+    }
+
+    private void releasePrepared() {
+        WireStore store = preparedStore;
+        preparedStore = null;
+        readyCycle = Integer.MIN_VALUE;
+        readyPath = null;
+        if (store != null)
+            store.release();
+        deletePrepared();
+    }
+
+    private void deletePrepared() {
+        Path path = preparedPath;
+        preparedPath = null;
+        if (path == null)
+            return;
+        try {
+            // if it was linked into place, the cycle file keeps the data.
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            Jvm.warn().on(getClass(), "Unable to delete " + path, e);
+        }
+    }
+
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        releasePrepared();
+    }
+
+    static final class PreparerContext implements ExcerptContext {
+        private final Wire wire;
+        private final Wire wireForIndex;
+        private final long timeoutMS;
+
+        PreparerContext(Wire wire, Wire wireForIndex, long timeoutMS) {
+            this.wire = wire;
+            this.wireForIndex = wireForIndex;
+            this.timeoutMS = timeoutMS;
+        }
+
+        @Override
+        public Wire wire() {
+            return wire;
+        }
+
+        @Override
+        public Wire wireForIndex() {
+            return wireForIndex;
+        }
+
+        @Override
+        public long timeoutMS() {
+            return timeoutMS;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.util.function.LongSupplier;
 class PretoucherState {
     private static final int HEAD_ROOM = 256 << 10;
     private final LongSupplier posSupplier;
+    private final int baseHeadRoom;
     private int minHeadRoom;
     private long lastTouchedPage = 0,
             lastTouchedPos = 0,
@@ -29,6 +30,7 @@ class PretoucherState {
 
     public PretoucherState(LongSupplier posSupplier, int minHeadRoom) {
         this.posSupplier = posSupplier;
+        this.baseHeadRoom = minHeadRoom;
         this.minHeadRoom = minHeadRoom;
     }
 
@@ -72,6 +74,11 @@ class PretoucherState {
                 if (pretouch < count) {
                     minHeadRoom += 256 << 10;
                     debug("pretouch for only " + pretouch + " of " + count + " min: " + (minHeadRoom >> 20) + " MB.");
+                } else if (minHeadRoom > baseHeadRoom) {
+                    // kept ahead, so give back some of the head room added when the writes were faster.
+                    minHeadRoom -= Math.max(OS.pageSize(), (minHeadRoom - baseHeadRoom) / 16);
+                    if (minHeadRoom < baseHeadRoom)
+                        minHeadRoom = baseHeadRoom;
                 }
 
                 long pos2 = posSupplier.getAsLong();
@@ -88,6 +95,17 @@ class PretoucherState {
         }
     }
 
+    /**
+     * @return how far the pages touched are ahead of the position when last pretouched.
+     */
+    long headRoom() {
+        return lastTouchedPage - lastPos;
+    }
+
+    int minHeadRoom() {
+        return minHeadRoom;
+    }
+
     protected void debug(String message) {
         Jvm.debug().on(getClass(), message);
     }
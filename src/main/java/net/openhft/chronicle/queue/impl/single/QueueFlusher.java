@@ -0,0 +1,244 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.DurabilityPolicy;
+import net.openhft.chronicle.queue.FlushStats;
+import net.openhft.chronicle.queue.impl.WireStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forces the cycle files appended to by a queue to disk, as its {@link DurabilityPolicy}
+ * requires. <p> The pages of a cycle file are shared by every mapping of it, so syncing the file
+ * writes back whatever has been appended through the mapped stores since it was last synced.
+ * With {@link DurabilityPolicy.Mode#ASYNC} the cycles appended to are synced from the event loop
+ * of the queue, with {@link DurabilityPolicy.Mode#SYNC_ON_CLOSE} the appender waits for a sync
+ * which started after its excerpt was written, and appenders waiting at the same time share one.
+ * </p>
+ */
+class QueueFlusher implements EventHandler, FlushStats {
+    private static final long STATS_INTERVAL_MS = 1000;
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    @NotNull
+    private final DurabilityPolicy policy;
+    private final long intervalNS;
+    // the cycles appended to since they were last synced, with ASYNC.
+    private final ConcurrentSkipListSet<Integer> dirtyCycles = new ConcurrentSkipListSet<>();
+    private final AtomicLong unsynced = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedAppendCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    // guarded by this
+    @Nullable
+    private FileChannel channel;
+    private int channelCycle = Integer.MIN_VALUE;
+    private boolean released = false;
+    // the last position known to be on disk, with SYNC_ON_CLOSE.
+    @NotNull
+    private volatile Synced synced = new Synced(Integer.MIN_VALUE, -1);
+    private volatile long lastSyncNanos = System.nanoTime();
+    private long nextStatsTime;
+    private volatile boolean closed = false;
+
+    QueueFlusher(@NotNull SingleChronicleQueue queue, @NotNull DurabilityPolicy policy) {
+        this.queue = queue;
+        this.policy = policy;
+        this.intervalNS = policy.micros() * 1000;
+        this.nextStatsTime = System.currentTimeMillis() + STATS_INTERVAL_MS;
+    }
+
+    /**
+     * Called by an appender after its excerpt has been written and the write position updated.
+     */
+    void onAppend(int cycle, @NotNull WireStore store) {
+        if (closed)
+            return;
+        if (policy.mode() == DurabilityPolicy.Mode.SYNC_ON_CLOSE) {
+            syncTo(cycle, store);
+            return;
+        }
+        if (!dirtyCycles.contains(cycle))
+            dirtyCycles.add(cycle);
+        unsynced.incrementAndGet();
+    }
+
+    private void syncTo(int cycle, @NotNull WireStore store) {
+        long position = store.writePosition();
+        if (synced.covers(cycle, position)) {
+            flushedAppendCount.incrementAndGet();
+            return;
+        }
+        synchronized (this) {
+            // another appender may have synced past this excerpt while this one waited.
+            if (!synced.covers(cycle, position)) {
+                // the write position is only moved on once the excerpt before it is complete.
+                long upTo = store.writePosition();
+                sync(cycle, store.file());
+                synced = new Synced(cycle, upTo);
+            }
+        }
+        flushedAppendCount.incrementAndGet();
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+
+        boolean busy = false;
+        long pending = unsynced.get();
+        if (pending > 0 && (pending >= policy.messages() && policy.messages() > 0
+                || intervalNS > 0 && System.nanoTime() - lastSyncNanos >= intervalNS)) {
+            unsynced.addAndGet(-pending);
+            flushedAppendCount.addAndGet(pending);
+            syncDirtyCycles();
+            busy = true;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now >= nextStatsTime) {
+            nextStatsTime = now + STATS_INTERVAL_MS;
+            queue.onFlushStats().accept(this);
+        }
+        return busy;
+    }
+
+    private void syncDirtyCycles() {
+        // a cycle is removed before it is synced, so an append after the sync marks it again.
+        for (Integer cycle; (cycle = dirtyCycles.pollFirst()) != null; )
+            sync(cycle, queue.fileForCycle(cycle));
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private synchronized void sync(int cycle, @Nullable File file) {
+        if (file == null || released)
+            return;
+        long start = System.nanoTime();
+        try {
+            if (channel == null || channelCycle != cycle) {
+                closeChannel();
+                if (!file.exists())
+                    return;
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+                channelCycle = cycle;
+            }
+            // the metadata of the file doesn't change as it is appended to in place.
+            channel.force(false);
+        } catch (IOException e) {
+            Jvm.warn().on(getClass(), "Unable to sync " + file, e);
+            closeChannel();
+            return;
+        }
+        long time = System.nanoTime() - start;
+        flushCount.incrementAndGet();
+        totalFlushNanos.addAndGet(time);
+        maxFlushNanos.accumulateAndGet(time, Math::max);
+        QueueMetrics metrics = queue.queueMetrics();
+        if (metrics != null)
+            metrics.onFlush(time);
+    }
+
+    private void closeChannel() {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            Jvm.debug().on(getClass(), "Unable to close the channel of cycle " + channelCycle, e);
+        }
+        channel = null;
+        channelCycle = Integer.MIN_VALUE;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MEDIUM;
+    }
+
+    /**
+     * Syncs anything still to be synced.
+     */
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        long pending = unsynced.getAndSet(0);
+        flushedAppendCount.addAndGet(pending);
+        syncDirtyCycles();
+        closeChannel();
+        released = true;
+    }
+
+    @Override
+    public long getAndClearFlushCount() {
+        return flushCount.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearFlushedAppendCount() {
+        return flushedAppendCount.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearTotalFlushNanos() {
+        return totalFlushNanos.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearMaxFlushNanos() {
+        return maxFlushNanos.getAndSet(0);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "QueueFlusher{" +
+                "policy=" + policy +
+                ", dirtyCycles=" + dirtyCycles +
+                ", unsynced=" + unsynced.get() +
+                '}';
+    }
+
+    private static final class Synced {
+        final int cycle;
+        final long position;
+
+        Synced(int cycle, long position) {
+            this.cycle = cycle;
+            this.position = position;
+        }
+
+        boolean covers(int cycle, long position) {
+            return this.cycle == cycle && this.position >= position;
+        }
+    }
+}
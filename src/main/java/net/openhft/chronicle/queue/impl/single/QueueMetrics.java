@@ -0,0 +1,369 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.QueueMetricsMXBean;
+import net.openhft.chronicle.queue.TailerMetricsMXBean;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the metrics of a queue and its named tailers, and publishes them as MXBeans. <p> The
+ * counts are striped, and the times are recorded to {@link LatencyHistogram}s, so the appenders
+ * don't contend with each other or allocate to record them. The rates are worked out from the
+ * event loop of the queue. </p>
+ */
+class QueueMetrics implements EventHandler, QueueMetricsMXBean {
+    static final String DOMAIN = "net.openhft.chronicle.queue";
+    private static final long RATE_INTERVAL_MS = 1000;
+    // headers read per tailer per interval, so counting a long cycle doesn't hold up the event loop.
+    private static final int MAX_LAG_HEADERS = 1 << 20;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    @NotNull
+    private final String path;
+    private final LongAdder appendCount = new LongAdder();
+    private final LongAdder appendedBytes = new LongAdder();
+    private final LongAdder headerWaitCount = new LongAdder();
+    private final LongAdder rollCount = new LongAdder();
+    private final LongAdder storeAcquireCount = new LongAdder();
+    private final LongAdder storeReleaseCount = new LongAdder();
+    private final LongAdder pagesPretouched = new LongAdder();
+    private final LongAdder pagesAlreadyWritten = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LatencyHistogram headerWaits = new LatencyHistogram();
+    private final LatencyHistogram rolls = new LatencyHistogram();
+    private final LatencyHistogram flushes = new LatencyHistogram();
+    // guarded by this
+    private final Map<String, TailerMetrics> tailers = new LinkedHashMap<>();
+    private final long lagAlertExcerpts, lagAlertBytes;
+    // guarded by itself
+    private final List<ObjectName> registered = new ArrayList<>();
+    private volatile long appendsPerSecond, appendedBytesPerSecond;
+    private long lastAppendCount, lastAppendedBytes;
+    private long nextRateTime;
+    private boolean closed = false;
+
+    QueueMetrics(@NotNull SingleChronicleQueue queue, long lagAlertExcerpts, long lagAlertBytes) {
+        this.queue = queue;
+        this.lagAlertExcerpts = lagAlertExcerpts;
+        this.lagAlertBytes = lagAlertBytes;
+        this.path = queue.file().getAbsolutePath();
+        this.nextRateTime = System.currentTimeMillis() + RATE_INTERVAL_MS;
+    }
+
+    /**
+     * Registers the MXBean of the queue.
+     */
+    void register() {
+        register(this, QueueMetricsMXBean.class, "type=Queue,name=" + ObjectName.quote(path));
+    }
+
+    /**
+     * A tailer of the same name takes over the metrics of the last one. The metrics of a tailer
+     * which has been garbage collected are unregistered by the event loop.
+     *
+     * @param tailer to record the metrics of
+     * @return the metrics for a tailer, registered under its name.
+     */
+    @NotNull
+    synchronized TailerMetrics newTailerMetrics(@NotNull String name, @NotNull Object tailer) {
+        TailerMetrics metrics = tailers.get(name);
+        if (metrics == null) {
+            metrics = new TailerMetrics(name, queue, lagAlertExcerpts, lagAlertBytes);
+            if (!closed) {
+                metrics.objectName(register(metrics, TailerMetricsMXBean.class,
+                        "type=Tailer,queue=" + ObjectName.quote(path) + ",name=" + ObjectName.quote(name)));
+                tailers.put(name, metrics);
+            }
+        }
+        metrics.owner(tailer);
+        return metrics;
+    }
+
+    /**
+     * @return the name registered under, or null if it couldn't be registered.
+     */
+    @Nullable
+    private <T> ObjectName register(@NotNull T mbean, @NotNull Class<T> mbeanInterface, @NotNull String properties) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            // another queue of the same path, or tailer of the same name, is registered.
+            if (server.isRegistered(name))
+                name = new ObjectName(DOMAIN + ":" + properties + ",instance=" + INSTANCES.incrementAndGet());
+            server.registerMBean(new StandardMBean(mbean, mbeanInterface, true), name);
+            synchronized (registered) {
+                registered.add(name);
+            }
+            return name;
+        } catch (JMException e) {
+            Jvm.warn().on(getClass(), "Unable to register the metrics " + properties, e);
+            return null;
+        }
+    }
+
+    private void unregister(@Nullable ObjectName name) {
+        if (name == null)
+            return;
+        synchronized (registered) {
+            registered.remove(name);
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            Jvm.debug().on(getClass(), "Unable to unregister " + name, e);
+        }
+    }
+
+    void onAppend(long bytes) {
+        appendCount.increment();
+        appendedBytes.add(bytes);
+    }
+
+    void onHeaderWait(long nanos) {
+        headerWaitCount.increment();
+        headerWaits.record(nanos);
+    }
+
+    void onRoll(long nanos) {
+        rollCount.increment();
+        rolls.record(nanos);
+    }
+
+    void onStoreAcquired() {
+        storeAcquireCount.increment();
+    }
+
+    void onStoreReleased() {
+        storeReleaseCount.increment();
+    }
+
+    void onPretouch(boolean touched) {
+        if (touched)
+            pagesPretouched.increment();
+        else
+            pagesAlreadyWritten.increment();
+    }
+
+    void onFlush(long nanos) {
+        flushCount.increment();
+        flushes.record(nanos);
+    }
+
+    @Override
+    public synchronized boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+
+        long now = System.currentTimeMillis();
+        if (now < nextRateTime)
+            return false;
+        long interval = now - nextRateTime + RATE_INTERVAL_MS;
+        nextRateTime = now + RATE_INTERVAL_MS;
+
+        long appends = appendCount.sum();
+        long bytes = appendedBytes.sum();
+        appendsPerSecond = (appends - lastAppendCount) * 1000 / interval;
+        appendedBytesPerSecond = (bytes - lastAppendedBytes) * 1000 / interval;
+        lastAppendCount = appends;
+        lastAppendedBytes = bytes;
+        for (Iterator<TailerMetrics> it = tailers.values().iterator(); it.hasNext(); ) {
+            TailerMetrics tailer = it.next();
+            if (tailer.isDiscarded()) {
+                it.remove();
+                unregister(tailer.objectName());
+                tailer.close();
+                continue;
+            }
+            tailer.updateRates(interval);
+            tailer.updateLag(MAX_LAG_HEADERS);
+        }
+        return false;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    /**
+     * Unregisters the MXBeans of the queue and its tailers.
+     */
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        synchronized (registered) {
+            for (ObjectName name : registered) {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException e) {
+                    Jvm.debug().on(getClass(), "Unable to unregister " + name, e);
+                }
+            }
+            registered.clear();
+        }
+        for (TailerMetrics tailer : tailers.values())
+            tailer.close();
+        tailers.clear();
+    }
+
+    @NotNull
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public long getAppendCount() {
+        return appendCount.sum();
+    }
+
+    @Override
+    public long getAppendedBytes() {
+        return appendedBytes.sum();
+    }
+
+    @Override
+    public long getAppendsPerSecond() {
+        return appendsPerSecond;
+    }
+
+    @Override
+    public long getAppendedBytesPerSecond() {
+        return appendedBytesPerSecond;
+    }
+
+    @Override
+    public long getHeaderWaitCount() {
+        return headerWaitCount.sum();
+    }
+
+    @Override
+    public long getHeaderWaitMedianNanos() {
+        return headerWaits.valueAt(50);
+    }
+
+    @Override
+    public long getHeaderWait99Nanos() {
+        return headerWaits.valueAt(99);
+    }
+
+    @Override
+    public long getHeaderWait999Nanos() {
+        return headerWaits.valueAt(99.9);
+    }
+
+    @Override
+    public long getHeaderWaitMaxNanos() {
+        return headerWaits.max();
+    }
+
+    @Override
+    public long getRollCount() {
+        return rollCount.sum();
+    }
+
+    @Override
+    public long getRollMedianNanos() {
+        return rolls.valueAt(50);
+    }
+
+    @Override
+    public long getRollMaxNanos() {
+        return rolls.max();
+    }
+
+    @Override
+    public long getStoreAcquireCount() {
+        return storeAcquireCount.sum();
+    }
+
+    @Override
+    public long getStoreReleaseCount() {
+        return storeReleaseCount.sum();
+    }
+
+    @Override
+    public long getPagesPretouched() {
+        return pagesPretouched.sum();
+    }
+
+    @Override
+    public long getPagesAlreadyWritten() {
+        return pagesAlreadyWritten.sum();
+    }
+
+    @Override
+    public long getPretouchHeadRoom() {
+        QueuePretoucher pretoucher = queue.pretoucher();
+        return pretoucher == null ? 0 : pretoucher.headRoom();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    @Override
+    public long getFlush99Nanos() {
+        return flushes.valueAt(99);
+    }
+
+    @Override
+    public long getFlushMaxNanos() {
+        return flushes.max();
+    }
+
+    @Override
+    public void reset() {
+        headerWaits.reset();
+        rolls.reset();
+        flushes.reset();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "QueueMetrics{" +
+                "path='" + path + '\'' +
+                ", appendCount=" + appendCount +
+                ", appendsPerSecond=" + appendsPerSecond +
+                '}';
+    }
+}
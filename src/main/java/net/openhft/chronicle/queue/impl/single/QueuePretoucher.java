@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.PretouchStats;
+import net.openhft.chronicle.queue.impl.WireStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Pretouches the pages ahead of the write position of the current cycle, and the start of the
+ * next cycle once its file exists, from the event loop of the queue. Every appender of a queue
+ * appends to the current cycle, so this keeps ahead of all of them without each appender having
+ * to call {@link net.openhft.chronicle.queue.ExcerptAppender#pretouch()}.
+ */
+class QueuePretoucher implements EventHandler, PretouchStats {
+    private static final long STATS_INTERVAL_MS = 1000;
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final Target current;
+    private final Target next;
+    private final AtomicLong pagesTouched = new AtomicLong();
+    private final AtomicLong pagesAlreadyWritten = new AtomicLong();
+    private final AtomicLong touchNanos = new AtomicLong();
+    private volatile long headRoom;
+    private long nextStatsTime;
+    private boolean closed = false;
+
+    QueuePretoucher(@NotNull SingleChronicleQueue queue) {
+        this.queue = queue;
+        this.current = new Target();
+        this.next = new Target();
+        this.nextStatsTime = System.currentTimeMillis() + STATS_INTERVAL_MS;
+    }
+
+    @Override
+    public synchronized boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+
+        long start = System.nanoTime();
+        int cycle = queue.cycle();
+        long touched = pagesTouched.get();
+        if (current.pretouch(cycle))
+            headRoom = current.state.headRoom();
+        next.pretouch(cycle + 1);
+        touchNanos.addAndGet(System.nanoTime() - start);
+
+        long now = System.currentTimeMillis();
+        if (now >= nextStatsTime) {
+            nextStatsTime = now + STATS_INTERVAL_MS;
+            queue.onPretouchStats().accept(this);
+        }
+        return pagesTouched.get() > touched;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        current.release();
+        next.release();
+    }
+
+    @Override
+    public long getAndClearPagesTouched() {
+        return pagesTouched.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearPagesAlreadyWritten() {
+        return pagesAlreadyWritten.getAndSet(0);
+    }
+
+    @Override
+    public long getAndClearTouchNanos() {
+        return touchNanos.getAndSet(0);
+    }
+
+    @Override
+    public long headRoom() {
+        return headRoom;
+    }
+
+    /**
+     * The store of one cycle being pretouched.
+     */
+    private final class Target {
+        private int cycle = Integer.MIN_VALUE;
+        @Nullable
+        private WireStore store;
+        @Nullable
+        private MappedBytes bytes;
+        @Nullable
+        private CountingState state;
+        @Nullable
+        private final Madvise.Advisor advisor = Madvise.Advisor.of(queue.madviseHints());
+
+        /**
+         * @return true if the store of the cycle exists and was pretouched.
+         */
+        boolean pretouch(int cycle) {
+            if (cycle != this.cycle) {
+                release();
+                WireStore store = queue.storeForCycle(cycle, queue.epoch(), false);
+                // try again next time, the file may not have been created yet.
+                if (store == null)
+                    return false;
+                this.cycle = cycle;
+                this.store = store;
+                this.bytes = (MappedBytes) store.bytes();
+                this.state = new CountingState(store::writePosition);
+            }
+            assert state != null && bytes != null && store != null;
+            if (advisor != null)
+                advisor.onPretouch(bytes, store.writePosition(), state.minHeadRoom());
+            state.pretouch(bytes);
+            return true;
+        }
+
+        void release() {
+            cycle = Integer.MIN_VALUE;
+            state = null;
+            if (bytes != null) {
+                bytes.release();
+                bytes = null;
+            }
+            if (store != null) {
+                queue.release(store);
+                store = null;
+            }
+        }
+    }
+
+    private final class CountingState extends PretoucherState {
+        CountingState(@NotNull LongSupplier posSupplier) {
+            super(posSupplier);
+        }
+
+        @Override
+        protected boolean touchPage(@NotNull MappedBytes bytes, long offset) {
+            boolean touched = super.touchPage(bytes, offset);
+            if (touched)
+                pagesTouched.incrementAndGet();
+            else
+                pagesAlreadyWritten.incrementAndGet();
+            QueueMetrics metrics = queue.queueMetrics();
+            if (metrics != null)
+                metrics.onPretouch(touched);
+            return touched;
+        }
+    }
+}
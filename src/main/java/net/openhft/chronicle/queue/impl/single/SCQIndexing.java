@@ -61,6 +61,10 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
     @NotNull
     private final WriteMarshallable indexTemplate;
     LongValue writePosition;
+    // shared by the tailers of the queue, if the queue has one.
+    @Nullable
+    IndexCache indexCache;
+    int indexCacheCycle;
 
     /**
      * used by {@link Demarshallable}
@@ -346,11 +350,18 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
             if (secondaryAddress <= 0) {
                 return null;
             }
-            @NotNull final LongArrayValues array1 = arrayForAddress(ec.wireForIndex(), secondaryAddress);
+            long[] cached = indexCache == null ? null : indexCache.get(indexCacheCycle, secondaryAddress);
+            final LongArrayValues array1;
+            if (cached == null) {
+                array1 = arrayForAddress(ec.wireForIndex(), secondaryAddress);
+                cached = cacheIfFull(secondaryAddress, array1);
+            } else {
+                array1 = null;
+            }
             long secondaryOffset = toAddress1(index);
 
             do {
-                long fromAddress = array1.getValueAt(secondaryOffset);
+                long fromAddress = cached != null ? cached[(int) secondaryOffset] : array1.getValueAt(secondaryOffset);
                 if (fromAddress == 0) {
                     secondaryOffset--;
                     startIndex -= indexSpacing;
@@ -371,6 +382,34 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
         }
     }
 
+    @Nullable
+    private long[] cacheIfFull(long secondaryAddress, @NotNull LongArrayValues values) {
+        if (indexCache == null || values.getUsed() < indexCount)
+            return null;
+        long[] copy = new long[indexCount];
+        for (int i = 0; i < indexCount; i++)
+            copy[i] = values.getVolatileValueAt(i);
+        indexCache.put(indexCacheCycle, secondaryAddress, copy);
+        return copy;
+    }
+
+    /**
+     * Moves the context to an index by scanning forward from an index whose position is known,
+     * when that is no further than scanning from the indexed entry before it.
+     *
+     * @param ec            the data structure we are navigating
+     * @param index         the index we wish to move to
+     * @param knownIndex    an index before it
+     * @param knownPosition the position of the header of {@code knownIndex}
+     * @return the result of the scan, or null if the index should be used instead.
+     */
+    @Nullable
+    ScanResult moveToIndexFrom(@NotNull ExcerptContext ec, long index, long knownIndex, long knownPosition) {
+        if (knownIndex > index || knownIndex < (index & ~(indexSpacing - 1)))
+            return null;
+        return linearScan(ec.wire(), index, knownIndex, knownPosition);
+    }
+
     /**
      * moves the context to the index of {@code toIndex} by doing a linear scans form a {@code
      * fromKnownIndex} at  {@code knownAddress} <p/> note meta data is skipped and does not count to
@@ -475,6 +514,10 @@ class SCQIndexing implements Demarshallable, WriteMarshallable, Closeable {
         return nextEntryToBeIndexed.getVolatileValue();
     }
 
+    int indexSpacing() {
+        return indexSpacing;
+    }
+
     long sequenceForPosition(@NotNull StoreRecovery recovery,
                              @NotNull ExcerptContext ec,
                              final long position,
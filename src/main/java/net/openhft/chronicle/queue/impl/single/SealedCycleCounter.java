@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Counts the excerpts in the cycles the appenders of this process have written the EOF to, and
+ * records them in the {@link CycleCounts} from the event loop of the queue, so the appender rolling
+ * the cycle doesn't wait for the count.
+ */
+class SealedCycleCounter implements EventHandler {
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final Queue<Integer> sealed = new ConcurrentLinkedQueue<>();
+    private boolean closed = false;
+
+    SealedCycleCounter(@NotNull SingleChronicleQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * Called by an appender after writing the EOF to a cycle.
+     */
+    void onSealed(int cycle) {
+        sealed.add(cycle);
+    }
+
+    @Override
+    public synchronized boolean action() throws InvalidEventHandlerException {
+        if (closed)
+            throw new InvalidEventHandlerException();
+        return countSealed();
+    }
+
+    private boolean countSealed() {
+        boolean counted = false;
+        for (Integer cycle; (cycle = sealed.poll()) != null; ) {
+            queue.recordCycleCount(cycle);
+            counted = true;
+        }
+        return counted;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    /**
+     * Records the counts of the cycles sealed before the queue was closed.
+     */
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        countSealed();
+    }
+}
@@ -24,11 +24,18 @@ import net.openhft.chronicle.core.threads.EventLoop;
 import net.openhft.chronicle.core.threads.ThreadLocalHelper;
 import net.openhft.chronicle.core.time.TimeProvider;
 import net.openhft.chronicle.core.util.StringUtils;
+import net.openhft.chronicle.queue.BufferMode;
+import net.openhft.chronicle.queue.DurabilityPolicy;
 import net.openhft.chronicle.queue.ExcerptAppender;
 import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.FlushStats;
+import net.openhft.chronicle.queue.MadviseHint;
+import net.openhft.chronicle.queue.PretouchStats;
+import net.openhft.chronicle.queue.QueueMetricsMXBean;
 import net.openhft.chronicle.queue.RollCycle;
 import net.openhft.chronicle.queue.TailerDirection;
 import net.openhft.chronicle.queue.impl.*;
+import net.openhft.chronicle.threads.EventGroup;
 import net.openhft.chronicle.threads.Pauser;
 import net.openhft.chronicle.wire.*;
 import org.jetbrains.annotations.NotNull;
@@ -46,6 +53,7 @@ import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -58,6 +66,8 @@ import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueExcerp
 public class SingleChronicleQueue implements RollingChronicleQueue {
 
     public static final String SUFFIX = ".cq4";
+    private static final int FIRST_EXCERPT_CACHE_SIZE = 1024;
+    private static final int FIRST_EXCERPT_MAX_SIZE = 64 << 10;
     private static final Logger LOG = LoggerFactory.getLogger(SingleChronicleQueue.class);
     private static final int FIRST_AND_LAST_RETRY_MAX = Integer.getInteger("cq.firstAndLastRetryMax", 8);
     protected final ThreadLocal<WeakReference<ExcerptAppender>> excerptAppenderThreadLocal = new ThreadLocal<>();
@@ -74,6 +84,8 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
     private final RollingResourcesCache dateCache;
     @NotNull
     private final WireStorePool pool;
+    @NotNull
+    private final DirectoryListing directoryListing;
     private final long epoch;
     private final boolean isBuffered;
     @NotNull
@@ -82,7 +94,8 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
     @NotNull
     private final Consumer<BytesRingBufferStats> onRingBufferStats;
     @Nullable
-    private final EventLoop eventLoop;
+    private EventLoop eventLoop;
+    private boolean ownsEventLoop = false;
     private final long bufferCapacity;
     private final int indexSpacing;
     private final int indexCount;
@@ -93,6 +106,56 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
     private final StoreRecoveryFactory recoverySupplier;
     private final Map<Object, Consumer> closers = new WeakHashMap<>();
     private final boolean readOnly;
+    @Nullable
+    private final MultiWriterBytesRingBuffer ringBuffer;
+    @Nullable
+    private final AsyncAppenderDrainer drainer;
+    @Nullable
+    private final NextCyclePreparer nextCyclePreparer;
+    @Nullable
+    private final BackgroundIndexer backgroundIndexer;
+    @Nullable
+    private final QueueFlusher flusher;
+    @Nullable
+    private final FilePreallocator preallocator;
+    @Nullable
+    private final QueuePretoucher pretoucher;
+    @NotNull
+    private final Consumer<PretouchStats> onPretouchStats;
+    @NotNull
+    private final Set<MadviseHint> madviseHints;
+    private final long preallocateBytes;
+    @NotNull
+    private final Consumer<FlushStats> onFlushStats;
+    @Nullable
+    private final ContentionMonitor contentionMonitor;
+    @Nullable
+    private final QueueMetrics metrics;
+    private final boolean timeIndex;
+    @Nullable
+    private final SealedCycleCounter sealedCycleCounter;
+    @Nullable
+    private final IndexCache indexCache;
+    private final long maxCycleBytes, maxCycleExcerpts;
+    // the period a cycle can be appended to until it is full, or 0 if cycles only roll on time.
+    private final long rollBoundaryLength;
+    // the highest cycle appended to, and the highest cycle known to be full, by this process.
+    private final AtomicInteger activeCycle = new AtomicInteger(Integer.MIN_VALUE);
+    private final AtomicInteger fullCycle = new AtomicInteger(Integer.MIN_VALUE);
+    // the last cycle in the directory, and the time cycle it was listed in, until this process appends.
+    private volatile int listedCycle = Integer.MIN_VALUE, listedTimeCycle = Integer.MIN_VALUE;
+    private final DataNotifier dataNotifier = new DataNotifier();
+    @Nullable
+    private CycleCounts cycleCounts;
+    // guarded by this
+    private boolean cycleCountsClosed = false;
+    // the first excerpt of closed cycles, used by BinarySearch.
+    private final Map<Integer, byte[]> firstExcerptCache = new LinkedHashMap<Integer, byte[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+            return size() > FIRST_EXCERPT_CACHE_SIZE;
+        }
+    };
     long firstAndLastCycleTime = 0;
     int firstAndLastRetry = 0;
     int firstCycle = Integer.MAX_VALUE, lastCycle = Integer.MIN_VALUE;
@@ -103,9 +166,11 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         epoch = builder.epoch();
         dateCache = new RollingResourcesCache(this.rollCycle, epoch, textToFile(builder),
                 fileToText());
-        pool = WireStorePool.withSupplier(new StoreSupplier(), builder.storeFileListener());
-        isBuffered = builder.buffered();
+        pool = WireStorePool.withSupplier(new StoreSupplier(), builder.storeFileListener(),
+                builder.maxIdleStores(), builder.maxIdleStoreBytes());
+        isBuffered = builder.writeBufferMode() == BufferMode.Asynchronous;
         path = builder.path();
+        directoryListing = new DirectoryListing(path, dateCache::parseCount, this::onCycleDeleted, builder.watchDirectory());
         wireType = builder.wireType();
         blockSize = builder.blockSize();
         overlapSize = builder.blockSize() / 4;
@@ -115,7 +180,16 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         indexCount = builder.indexCount();
         indexSpacing = builder.indexSpacing();
         time = builder.timeProvider();
-        pauserSupplier = builder.pauserSupplier();
+        if (builder.contentionAwarePauser()) {
+            ContentionMonitor monitor = new ContentionMonitor(builder.onContentionStats());
+            contentionMonitor = monitor;
+            pauserSupplier = () -> new ContentionPauser(monitor);
+        } else {
+            contentionMonitor = null;
+            pauserSupplier = builder.pauserSupplier();
+        }
+        // before the handlers which record to it are created.
+        metrics = builder.metrics() ? new QueueMetrics(this, builder.lagAlertExcerpts(), builder.lagAlertBytes()) : null;
         timeoutMS = builder.timeoutMS();
         storeFactory = builder.storeFactory();
 
@@ -133,6 +207,101 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         sourceId = builder.sourceId();
         recoverySupplier = builder.recoverySupplier();
         readOnly = builder.readOnly();
+        timeIndex = builder.timeIndex();
+        indexCache = builder.indexCacheSize() > 0 ? new IndexCache(builder.indexCacheSize()) : null;
+        maxCycleBytes = builder.maxCycleBytes();
+        maxCycleExcerpts = builder.maxCycleExcerpts();
+        if (maxCycleExcerpts > 0 && builder.backgroundIndexing())
+            throw new IllegalArgumentException("maxCycleExcerpts can't be used with backgroundIndexing, " +
+                    "as appenders don't know the index of each excerpt, use maxCycleBytes");
+        @Nullable RollCycle rollBoundary = builder.rollBoundary();
+        if (rollBoundary != null) {
+            if (rollBoundary.length() % rollCycle.length() != 0)
+                throw new IllegalArgumentException("The rollBoundary " + rollBoundary + " must be a multiple " +
+                        "of the rollCycle " + rollCycle);
+            rollBoundaryLength = rollBoundary.length();
+        } else {
+            rollBoundaryLength = maxCycleBytes > 0 || maxCycleExcerpts > 0 ? rollCycle.length() : 0;
+        }
+
+        // after the options are checked, so no handler is left on the event loop if they are wrong.
+        if (builder.recordCycleCounts() && !readOnly) {
+            sealedCycleCounter = new SealedCycleCounter(this);
+            acquireEventLoop().addHandler(sealedCycleCounter);
+        } else {
+            sealedCycleCounter = null;
+        }
+
+        // before the drainer is created, as its appender checks for background indexing.
+        if (builder.backgroundIndexing() && !readOnly) {
+            backgroundIndexer = new BackgroundIndexer(this);
+            acquireEventLoop().addHandler(backgroundIndexer);
+        } else {
+            backgroundIndexer = null;
+        }
+
+        if (isBuffered && !readOnly) {
+            ringBuffer = new MultiWriterBytesRingBuffer(bufferCapacity);
+            drainer = new AsyncAppenderDrainer(this, ringBuffer);
+            acquireEventLoop().addHandler(drainer);
+        } else {
+            ringBuffer = null;
+            drainer = null;
+        }
+
+        // before the next cycle preparer, which preallocates the files it creates.
+        preallocateBytes = builder.preallocateBytes();
+        long prepareNextCycleMS = builder.prepareNextCycleMS();
+        if (prepareNextCycleMS > 0 && rollBoundaryLength > 0) {
+            // the next cycle isn't known ahead of time.
+            LOG.warn("prepareNextCycleMS is ignored as cycles can roll on size");
+            prepareNextCycleMS = 0;
+        }
+        if (prepareNextCycleMS > 0 && !readOnly) {
+            nextCyclePreparer = new NextCyclePreparer(this, prepareNextCycleMS);
+            acquireEventLoop().addHandler(nextCyclePreparer);
+        } else {
+            nextCyclePreparer = null;
+        }
+        if (preallocateBytes > 0 && nextCyclePreparer == null && !readOnly)
+            LOG.warn("preallocateBytes is ignored as only cycles prepared ahead of time are preallocated");
+
+        if (builder.maxIdleStores() > 0)
+            acquireEventLoop().addHandler(new IdleStoreEvictor(pool));
+
+        onFlushStats = builder.onFlushStats();
+        DurabilityPolicy durabilityPolicy = builder.durabilityPolicy();
+        if (durabilityPolicy.mode() != DurabilityPolicy.Mode.NONE && !readOnly) {
+            flusher = new QueueFlusher(this, durabilityPolicy);
+            acquireEventLoop().addHandler(flusher);
+        } else {
+            flusher = null;
+        }
+
+        if (builder.preallocateAheadBytes() > 0 && !readOnly) {
+            preallocator = new FilePreallocator(this, builder.preallocateAheadBytes());
+            acquireEventLoop().addHandler(preallocator);
+        } else {
+            preallocator = null;
+        }
+
+        // before the pretoucher and any tailer is created, as they give the hints.
+        madviseHints = builder.madviseHints();
+        onPretouchStats = builder.onPretouchStats();
+        if (builder.backgroundPretouch() && !readOnly) {
+            pretoucher = new QueuePretoucher(this);
+            acquireEventLoop().addHandler(pretoucher);
+        } else {
+            pretoucher = null;
+        }
+
+        if (contentionMonitor != null)
+            acquireEventLoop().addHandler(contentionMonitor);
+
+        if (metrics != null) {
+            metrics.register();
+            acquireEventLoop().addHandler(metrics);
+        }
     }
 
     @Nullable
@@ -279,6 +448,48 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return this.eventLoop;
     }
 
+    /**
+     * @return true if the index is written by a background indexer, and appenders default to
+     * lazyIndexing
+     */
+    public boolean backgroundIndexing() {
+        return backgroundIndexer != null;
+    }
+
+    /**
+     * @return true if the time each indexed excerpt is written is recorded for moveBeforeTime()
+     */
+    public boolean timeIndex() {
+        return timeIndex;
+    }
+
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * @return the event loop for background tasks, if none was provided to the builder, one is
+     * started and closed with this queue.
+     */
+    @NotNull
+    synchronized EventLoop acquireEventLoop() {
+        if (eventLoop == null) {
+            eventLoop = new EventGroup(true);
+            eventLoop.start();
+            ownsEventLoop = true;
+        }
+        return eventLoop;
+    }
+
+    /**
+     * @return the ring buffer appenders write to when the writeBufferMode is Asynchronous,
+     * otherwise null.
+     */
+    @Nullable
+    MultiWriterBytesRingBuffer ringBuffer() {
+        return ringBuffer;
+    }
+
     @NotNull
     protected ExcerptAppender newAppender() {
         return new StoreAppender(this);
@@ -299,10 +510,32 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return new StoreTailer(this).toStart();
     }
 
+    /**
+     * Creates a tailer whose metrics are published under its name, if the queue is built with
+     * metrics.
+     *
+     * @param name of the tailer
+     * @return the tailer
+     */
+    @NotNull
+    public ExcerptTailer createTailer(@NotNull String name) {
+        StoreTailer tailer = new StoreTailer(this);
+        if (metrics == null)
+            return tailer.toStart();
+        TailerMetrics tailerMetrics = metrics.newTailerMetrics(name, tailer);
+        tailer.metrics(tailerMetrics);
+        tailer.toStart();
+        tailerMetrics.startIndex(tailer.index());
+        return tailer;
+    }
+
     @Nullable
     @Override
     public final WireStore storeForCycle(int cycle, final long epoch, boolean createIfAbsent) {
-        return this.pool.acquire(cycle, epoch, createIfAbsent);
+        WireStore store = this.pool.acquire(cycle, epoch, createIfAbsent);
+        if (store != null && metrics != null)
+            metrics.onStoreAcquired();
+        return store;
     }
 
     @Override
@@ -311,6 +544,13 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
     }
 
     public long exceptsPerCycle(int cycle) {
+        CycleCounts counts = cycleCounts(false);
+        if (counts != null) {
+            long count = counts.count(cycle);
+            // a cycle sealed empty is recorded as 0.
+            if (count >= 0)
+                return count;
+        }
         StoreTailer tailer = acquireTailer();
         try {
             long index = rollCycle.toIndex(cycle, 0);
@@ -431,22 +671,148 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
     public void close() {
         if (isClosed.getAndSet(true))
             return;
+        // write out anything still buffered before the appenders are closed.
+        if (drainer != null)
+            drainer.close();
+        // after the drainer, so what it wrote is synced.
+        if (flusher != null)
+            flusher.close();
+        if (nextCyclePreparer != null)
+            nextCyclePreparer.close();
+        if (backgroundIndexer != null)
+            backgroundIndexer.close();
+        if (sealedCycleCounter != null)
+            sealedCycleCounter.close();
+        if (preallocator != null)
+            preallocator.close();
+        if (pretoucher != null)
+            pretoucher.close();
+        if (contentionMonitor != null)
+            contentionMonitor.close();
+        if (metrics != null)
+            metrics.close();
         synchronized (closers) {
             closers.forEach((k, v) -> v.accept(k));
             closers.clear();
         }
         this.pool.close();
+        directoryListing.close();
+        synchronized (this) {
+            if (cycleCounts != null)
+                cycleCounts.close();
+            cycleCountsClosed = true;
+        }
+        synchronized (this) {
+            if (ownsEventLoop && eventLoop != null)
+                eventLoop.close();
+        }
     }
 
     @Override
     public final void release(@Nullable WireStore store) {
-        if (store != null)
+        if (store != null) {
             this.pool.release(store);
+            if (metrics != null)
+                metrics.onStoreReleased();
+        }
     }
 
+    /**
+     * @return the cycle to append to now. This is the cycle for the current time, unless cycles
+     * roll on size, in which case it is the last cycle appended to until it is full or the roll
+     * boundary is passed.
+     */
     @Override
     public final int cycle() {
-        return this.rollCycle.current(time, epoch);
+        int timeCycle = this.rollCycle.current(time, epoch);
+        if (rollBoundaryLength <= 0)
+            return timeCycle;
+        int active = activeCycle.get();
+        if (active == Integer.MIN_VALUE) {
+            active = listedCycle(timeCycle);
+            if (active == Integer.MIN_VALUE)
+                return timeCycle;
+        }
+        boolean full = active <= fullCycle.get();
+        // a cycle which filled up before its time has passed rolls to the next one.
+        if (active >= timeCycle)
+            return full ? active + 1 : active;
+        return !full && samePeriod(active, timeCycle) ? active : timeCycle;
+    }
+
+    /**
+     * @return the last cycle in the directory, only listed again when the time cycle changes, as
+     * this is called for every append and read until this process appends.
+     */
+    private int listedCycle(int timeCycle) {
+        if (listedTimeCycle != timeCycle) {
+            listedCycle = lastCycle();
+            // after the cycle, so a reader of the time cycle sees the cycle listed for it.
+            listedTimeCycle = timeCycle;
+        }
+        return listedCycle;
+    }
+
+    /**
+     * @return true if a cycle can be appended to after its time has passed, as it rolls on size
+     * or at a roll boundary.
+     */
+    boolean rollsOnSize() {
+        return rollBoundaryLength > 0;
+    }
+
+    /**
+     * @return true if cycles roll on the number of excerpts, which needs the index of each one.
+     */
+    boolean rollsOnExcerpts() {
+        return maxCycleExcerpts > 0;
+    }
+
+    /**
+     * @return the time after which an appender moves on from a cycle which isn't full, so a
+     * tailer at the end of it can write the EOF.
+     */
+    long timeForNextCycle(int cycle) {
+        long length = rollCycle.length();
+        if (rollBoundaryLength <= 0)
+            return (cycle + 1L) * length + epoch;
+        return (Math.floorDiv(cycle * length, rollBoundaryLength) + 1) * rollBoundaryLength + epoch;
+    }
+
+    private boolean samePeriod(int cycle1, int cycle2) {
+        long length = rollCycle.length();
+        return Math.floorDiv(cycle1 * length, rollBoundaryLength) == Math.floorDiv(cycle2 * length, rollBoundaryLength);
+    }
+
+    /**
+     * Called after an appender has written to a cycle, so waiting tailers are woken, the excerpt
+     * is synced as the durability policy requires, and the next append rolls if the cycle is now
+     * full.
+     *
+     * @param cycle     appended to
+     * @param store     of that cycle
+     * @param lastIndex the index of the excerpt written, or Long.MIN_VALUE if not known.
+     * @param bytes     written, including the headers
+     */
+    void afterAppend(int cycle, @NotNull WireStore store, long lastIndex, long bytes) {
+        dataNotifier.signal();
+        if (metrics != null)
+            metrics.onAppend(bytes);
+        if (flusher != null)
+            flusher.onAppend(cycle, store);
+        if (rollBoundaryLength <= 0)
+            return;
+        if ((maxCycleBytes > 0 && store.writePosition() >= maxCycleBytes)
+                || (maxCycleExcerpts > 0 && lastIndex != Long.MIN_VALUE
+                && rollCycle.toSequenceNumber(lastIndex) + 1 >= maxCycleExcerpts))
+            onEndOfCycle(cycle);
+    }
+
+    /**
+     * @param cycle which has been found to be full, or to have an EOF.
+     */
+    void onEndOfCycle(int cycle) {
+        fullCycle.accumulateAndGet(cycle, Math::max);
     }
 
     @Override
@@ -461,11 +827,6 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return rollCycle().toIndex(cycle, 0);
     }
 
-    @Nullable
-    String[] getList() {
-        return path.list();
-    }
-
     private void setFirstAndLastCycle() {
         long now = time.currentTimeMillis() + System.currentTimeMillis();
         if (now == firstAndLastCycleTime) {
@@ -478,29 +839,127 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         firstCycle = Integer.MAX_VALUE;
         lastCycle = Integer.MIN_VALUE;
 
-        // we use this to double check the result
-        final String[] files = getList();
+        directoryListing.refresh();
+        final NavigableSet<Long> cycles = directoryListing.cycles();
+        if (!cycles.isEmpty()) {
+            firstCycle = cycles.first().intValue();
+            lastCycle = cycles.last().intValue();
+        }
 
-        if (files == null)
-            return;
+        firstAndLastCycleTime = now;
+        firstAndLastRetry = 0;
+    }
 
-        for (String file : files) {
+    @Nullable
+    byte[] cachedFirstExcerpt(int cycle) {
+        synchronized (firstExcerptCache) {
+            return firstExcerptCache.get(cycle);
+        }
+    }
 
-            if (!file.endsWith(SUFFIX))
-                continue;
+    /**
+     * @param cycle   a cycle which has rolled, so its first excerpt won't change.
+     * @param excerpt a copy of the first excerpt.
+     */
+    void cacheFirstExcerpt(int cycle, @NotNull byte[] excerpt) {
+        if (excerpt.length > FIRST_EXCERPT_MAX_SIZE)
+            return;
+        synchronized (firstExcerptCache) {
+            firstExcerptCache.put(cycle, excerpt);
+        }
+    }
 
-            file = file.substring(0, file.length() - SUFFIX.length());
+    @Nullable
+    private synchronized CycleCounts cycleCounts(boolean createIfAbsent) {
+        // open until after the sealed cycles are recorded on close.
+        if (cycleCounts == null && !cycleCountsClosed)
+            cycleCounts = CycleCounts.of(path, createIfAbsent && !readOnly, readOnly);
+        return cycleCounts;
+    }
 
-            int fileCycle = dateCache.parseCount(file);
-            if (firstCycle > fileCycle)
-                firstCycle = fileCycle;
-            if (lastCycle < fileCycle)
-                lastCycle = fileCycle;
+    /**
+     * Called when an appender has written the EOF to a cycle, so the number of excerpts in it is
+     * recorded from the event loop, if recordCycleCounts is set.
+     *
+     * @param cycle which has been rolled
+     */
+    void onCycleSealed(int cycle) {
+        if (sealedCycleCounter != null)
+            sealedCycleCounter.onSealed(cycle);
+    }
 
+    /**
+     * Counts the excerpts in a cycle which has been rolled and records the count.
+     */
+    void recordCycleCount(int cycle) {
+        try {
+            long count = exceptsPerCycle(cycle);
+            // the cycle was sealed without any excerpts in it.
+            if (count < 0 && fileForCycle(cycle).exists())
+                count = 0;
+            CycleCounts counts = cycleCounts(true);
+            if (counts != null && count >= 0)
+                counts.record(cycle, count);
+        } catch (IllegalStateException e) {
+            Jvm.warn().on(getClass(), "Unable to count the excerpts in cycle " + cycle, e);
         }
+    }
 
-        firstAndLastCycleTime = now;
-        firstAndLastRetry = 0;
+    /**
+     * Removes what is kept for a cycle beside its file, once the file has been deleted, so it isn't
+     * used for the cycle if it is created again.
+     */
+    private void onCycleDeleted(int cycle) {
+        synchronized (firstExcerptCache) {
+            firstExcerptCache.remove(cycle);
+        }
+        if (indexCache != null)
+            indexCache.forget(cycle);
+        if (readOnly || fileForCycle(cycle).exists())
+            return;
+        File timeIndexFile = TimeIndex.fileFor(fileForCycle(cycle));
+        try {
+            Files.deleteIfExists(timeIndexFile.toPath());
+        } catch (IOException e) {
+            Jvm.debug().on(getClass(), "Unable to delete " + timeIndexFile, e);
+        }
+        CycleCounts counts = cycleCounts(false);
+        if (counts != null)
+            counts.forget(cycle);
+    }
+
+    /**
+     * @return the bytes to allocate in a cycle file prepared ahead of time, or 0 for none.
+     */
+    long preallocateBytes() {
+        return preallocateBytes;
+    }
+
+    @NotNull
+    File fileForCycle(int cycle) {
+        return dateCache.resourceFor(cycle).path;
+    }
+
+    /**
+     * @param cycle to start from
+     * @return the first cycle with a file, from this cycle on, or Integer.MIN_VALUE if none.
+     */
+    int cycleAtOrAfter(int cycle) {
+        directoryListing.refresh();
+        final NavigableSet<Long> cycles = directoryListing.cycles();
+        Long next = cycles.ceiling((long) cycle);
+        return next == null ? Integer.MIN_VALUE : next.intValue();
+    }
+
+    /**
+     * @param cycle to start from
+     * @return the last cycle with a file, up to this cycle, or Integer.MIN_VALUE if none.
+     */
+    int cycleAtOrBefore(int cycle) {
+        directoryListing.refresh();
+        final NavigableSet<Long> cycles = directoryListing.cycles();
+        Long before = cycles.floor((long) cycle);
+        return before == null ? Integer.MIN_VALUE : before.intValue();
     }
 
     public int firstCycle() {
@@ -514,6 +973,7 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
      * @param cycle the cycle the appender has rolled to
      */
     void onRoll(int cycle) {
+        activeCycle.accumulateAndGet(cycle, Math::max);
         if (lastCycle < cycle)
             lastCycle = cycle;
         if (firstCycle > cycle)
@@ -531,6 +991,54 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return this.onRingBufferStats;
     }
 
+    @NotNull
+    Consumer<FlushStats> onFlushStats() {
+        return onFlushStats;
+    }
+
+    @Nullable
+    QueueFlusher flusher() {
+        return flusher;
+    }
+
+    @NotNull
+    Consumer<PretouchStats> onPretouchStats() {
+        return onPretouchStats;
+    }
+
+    @NotNull
+    DataNotifier dataNotifier() {
+        return dataNotifier;
+    }
+
+    @NotNull
+    Set<MadviseHint> madviseHints() {
+        return madviseHints;
+    }
+
+    /**
+     * @return the metrics of this queue, or null if it wasn't built with metrics.
+     */
+    @Nullable
+    public QueueMetricsMXBean metrics() {
+        return metrics;
+    }
+
+    @Nullable
+    QueueMetrics queueMetrics() {
+        return metrics;
+    }
+
+    @Nullable
+    ContentionMonitor contentionMonitor() {
+        return contentionMonitor;
+    }
+
+    @Nullable
+    QueuePretoucher pretoucher() {
+        return pretoucher;
+    }
+
     public long blockSize() {
         return this.blockSize;
     }
@@ -560,10 +1068,55 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         return MappedBytes.mappedBytes(cycleFile, chunkSize, overlapSize, readOnly);
     }
 
-    private int toCycle(@Nullable Map.Entry<Long, File> entry) throws ParseException {
-        if (entry == null || entry.getValue() == null)
-            return -1;
-        return dateCache.parseCount(fileToText().apply(entry.getValue()));
+    @Nullable
+    NextCyclePreparer nextCyclePreparer() {
+        return nextCyclePreparer;
+    }
+
+    /**
+     * Creates the store of a cycle file which isn't in place yet, so it can be prepared before any
+     * reader can see it.
+     */
+    @NotNull
+    WireStore createPreparedStore(int cycle, @NotNull File file) {
+        try {
+            return newStore(cycle, mappedBytes(file));
+        } catch (@NotNull TimeoutException | IOException e) {
+            throw Jvm.rethrow(e);
+        }
+    }
+
+    @NotNull
+    private WireStore newStore(int cycle, @NotNull MappedBytes mappedBytes) throws TimeoutException, StreamCorruptedException {
+        AbstractWire wire = (AbstractWire) wireType.apply(mappedBytes);
+        assert wire.startUse();
+        wire.pauser(pauserSupplier.get());
+        wire.headerNumber(rollCycle.toIndex(cycle, 0) - 1);
+
+        WireStore wireStore;
+        if ((!readOnly) && wire.writeFirstHeader()) {
+            wireStore = storeFactory.apply(this, wire);
+            wire.updateFirstHeader();
+        } else {
+            wire.readFirstHeader(timeoutMS, TimeUnit.MILLISECONDS);
+
+            StringBuilder name = Wires.acquireStringBuilder();
+            ValueIn valueIn = wire.readEventName(name);
+            if (StringUtils.isEqual(name, MetaDataKeys.header.name())) {
+                wireStore = valueIn.typedMarshallable();
+            } else {
+                //noinspection unchecked
+                throw new StreamCorruptedException("The first message should be the header, was " + name);
+            }
+        }
+
+        if (indexCache != null && wireStore instanceof SingleChronicleQueueStore) {
+            SCQIndexing indexing = ((SingleChronicleQueueStore) wireStore).indexing;
+            indexing.indexCacheCycle = cycle;
+            indexing.indexCache = indexCache;
+        }
+
+        return wireStore;
     }
 
     @NotNull
@@ -598,36 +1151,19 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
                         return null;
                 }
 
-                if (!path.exists() && !createIfAbsent)
+                boolean exists = path.exists();
+                if (!exists && !createIfAbsent)
                     return null;
+                // link the file prepared ahead of time into place, if there is one.
+                boolean published = !exists && nextCyclePreparer != null && nextCyclePreparer.publish(cycle, path);
 
-                if (createIfAbsent)
+                if (createIfAbsent && !published)
                     checkDiskSpace(path);
 
                 final MappedBytes mappedBytes = mappedBytes(path);
-                AbstractWire wire = (AbstractWire) wireType.apply(mappedBytes);
-                assert wire.startUse();
-                wire.pauser(pauserSupplier.get());
-                wire.headerNumber(rollCycle.toIndex(cycle, 0) - 1);
-
-                WireStore wireStore;
-                if ((!readOnly) && wire.writeFirstHeader()) {
-                    wireStore = storeFactory.apply(that, wire);
-                    wire.updateFirstHeader();
-                } else {
-                    wire.readFirstHeader(timeoutMS, TimeUnit.MILLISECONDS);
-
-                    StringBuilder name = Wires.acquireStringBuilder();
-                    ValueIn valueIn = wire.readEventName(name);
-                    if (StringUtils.isEqual(name, MetaDataKeys.header.name())) {
-                        wireStore = valueIn.typedMarshallable();
-                    } else {
-                        //noinspection unchecked
-                        throw new StreamCorruptedException("The first message should be the header, was " + name);
-                    }
-                }
-
-                return wireStore;
+                if (!exists)
+                    directoryListing.onFileCreated(dateCache.parseCount(dateValue.text));
+                return newStore(cycle, mappedBytes);
 
             } catch (@NotNull TimeoutException | IOException e) {
                 throw Jvm.rethrow(e);
@@ -650,28 +1186,18 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
         }
 
         /**
-         * @return cycleTree for the current directory / parentFile
-         * @throws ParseException
+         * @return the cycles with a file in the directory of the queue
          */
         @NotNull
-        private NavigableMap<Long, File> cycleTree() {
+        private NavigableSet<Long> cycles() {
 
             final File parentFile = path;
 
             if (!parentFile.exists())
                 throw new IllegalStateException("parentFile=" + parentFile.getName() + " does not exist");
 
-            final RollingResourcesCache dateCache = SingleChronicleQueue.this.dateCache;
-            final NavigableMap<Long, File> tree = new TreeMap<>();
-
-            final File[] files = parentFile.listFiles((File file) -> file.getName().endsWith(SUFFIX));
-
-            for (File file : files) {
-                tree.put(dateCache.toLong(file), file);
-            }
-
-            return tree;
-
+            directoryListing.refresh();
+            return directoryListing.cycles();
         }
 
         @Override
@@ -680,25 +1206,28 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
             if (direction == NONE)
                 throw new AssertionError("direction is NONE");
             assert currentCycle >= 0 : "currentCycle=" + Integer.toHexString(currentCycle);
-            final NavigableMap<Long, File> tree = cycleTree();
-            final File currentCycleFile = dateCache.resourceFor(currentCycle).path;
+            final NavigableSet<Long> cycles = cycles();
+            final RollingResourcesCache.Resource resource = dateCache.resourceFor(currentCycle);
 
-            if (!currentCycleFile.exists())
-                throw new IllegalStateException("file not exists, currentCycle, " + "file=" + currentCycleFile);
+            if (!resource.path.exists())
+                throw new IllegalStateException("file not exists, currentCycle, " + "file=" + resource.path);
 
-            Long key = dateCache.toLong(currentCycleFile);
-            File file = tree.get(key);
-            if (file == null)
-                throw new AssertionError("missing currentCycle, file=" + currentCycleFile);
+            int key = dateCache.parseCount(resource.text);
+            // created by another process, which the directory watch hasn't reported yet.
+            directoryListing.onFileCreated(key);
 
+            Long next;
             switch (direction) {
                 case FORWARD:
-                    return toCycle(tree.higherEntry(key));
+                    next = cycles.higher((long) key);
+                    break;
                 case BACKWARD:
-                    return toCycle(tree.lowerEntry(key));
+                    next = cycles.lower((long) key);
+                    break;
                 default:
                     throw new UnsupportedOperationException("Unsupported Direction");
             }
+            return next == null ? -1 : next.intValue();
         }
 
         /**
@@ -711,19 +1240,21 @@ public class SingleChronicleQueue implements RollingChronicleQueue {
          */
         @Override
         public NavigableSet<Long> cycles(int lowerCycle, int upperCycle) throws ParseException {
-            final NavigableMap<Long, File> tree = cycleTree();
-            final Long lowerKey = toKey(lowerCycle, "lowerCycle");
-            final Long upperKey = toKey(upperCycle, "upperCycle");
-            assert lowerKey != null;
-            assert upperKey != null;
-            return tree.subMap(lowerKey, true, upperKey, true).navigableKeySet();
-        }
-
-        private Long toKey(int cyle, String m) {
-            final File file = dateCache.resourceFor(cyle).path;
-            if (!file.exists())
-                throw new IllegalStateException("'file not found' for the " + m + ", file=" + file);
-            return dateCache.toLong(file);
+            cycles();
+            final int lowerKey = toKey(lowerCycle, "lowerCycle");
+            final int upperKey = toKey(upperCycle, "upperCycle");
+            // a view of the snapshot, which includes both keys now they are known to exist.
+            return directoryListing.cycles().subSet((long) lowerKey, true, (long) upperKey, true);
+        }
+
+        private int toKey(int cycle, String m) {
+            final RollingResourcesCache.Resource resource = dateCache.resourceFor(cycle);
+            if (!resource.path.exists())
+                throw new IllegalStateException("'file not found' for the " + m + ", file=" + resource.path);
+            int key = dateCache.parseCount(resource.text);
+            // created by another process, which the directory watch hasn't reported yet.
+            directoryListing.onFileCreated(key);
+            return key;
         }
     }
 }
@@ -135,8 +135,6 @@ public class SingleChronicleQueueBuilder<S extends SingleChronicleQueueBuilder>
 
     @NotNull
     public SingleChronicleQueue build() {
-        if (buffered())
-            onlyAvailableInEnterprise();
         return new SingleChronicleQueue(this);
     }
 
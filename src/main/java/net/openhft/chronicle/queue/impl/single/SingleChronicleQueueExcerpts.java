@@ -40,6 +40,7 @@ import java.io.IOException;
 import java.io.StreamCorruptedException;
 import java.nio.BufferOverflowException;
 import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static net.openhft.chronicle.queue.TailerDirection.BACKWARD;
@@ -75,6 +76,8 @@ public class SingleChronicleQueueExcerpts {
         @NotNull
         private final StoreAppenderContext context;
         @Nullable
+        private final MultiWriterBytesRingBuffer ringBuffer;
+        @Nullable
         WireStore store;
         private int cycle = Integer.MIN_VALUE;
         @Nullable
@@ -90,12 +93,28 @@ public class SingleChronicleQueueExcerpts {
         private boolean lazyIndexing = false;
         private long lastPosition;
         private int lastCycle;
+        // the last excerpt position in this store resolved to a sequence number, or -1
+        private long resolvedPosition = -1;
+        private long resolvedSequence;
         @Nullable
         private PretoucherState pretoucher = null;
+        @Nullable
+        private TimeIndex timeIndex = null;
         private Padding padToCacheLines = Padding.SMART;
 
         StoreAppender(@NotNull SingleChronicleQueue queue) {
+            this(queue, queue.ringBuffer());
+        }
+
+        /**
+         * @param queue      to append to
+         * @param ringBuffer to buffer excerpts in, or null to write to the store directly.
+         */
+        StoreAppender(@NotNull SingleChronicleQueue queue, @Nullable MultiWriterBytesRingBuffer ringBuffer) {
             this.queue = queue;
+            this.ringBuffer = ringBuffer;
+            // the background indexer adds the index entries instead.
+            this.lazyIndexing = queue.backgroundIndexing();
             queue.addCloseListener(this, StoreAppender::close);
             context = new StoreAppenderContext();
         }
@@ -154,9 +173,16 @@ public class SingleChronicleQueueExcerpts {
                 bufferWire.bytes().release();
                 bufferWire = null;
             }
+            closeTimeIndex();
             store = null;
         }
 
+        private void closeTimeIndex() {
+            if (timeIndex != null)
+                timeIndex.close();
+            timeIndex = null;
+        }
+
         @Override
         public void pretouch() {
             setCycle(queue.cycle(), true);
@@ -191,6 +217,9 @@ public class SingleChronicleQueueExcerpts {
         @NotNull
         @Override
         public ExcerptAppender lazyIndexing(boolean lazyIndexing) {
+            if (lazyIndexing && queue.rollsOnExcerpts())
+                throw new IllegalStateException("lazyIndexing can't be used with maxCycleExcerpts, " +
+                        "as the index of each excerpt isn't known");
             this.lazyIndexing = lazyIndexing;
             resetPosition();
             return this;
@@ -222,7 +251,11 @@ public class SingleChronicleQueueExcerpts {
                 queue.release(this.store);
 
             this.store = queue.storeForCycle(cycle, queue.epoch(), createIfAbsent);
+            resolvedPosition = -1;
             resetWires(queue);
+            closeTimeIndex();
+            if (queue.timeIndex())
+                timeIndex = TimeIndex.of(store.file(), queue.indexSpacing(), true, false);
 
             // only set the cycle after the wire is set.
             this.cycle = cycle;
@@ -279,6 +312,8 @@ public class SingleChronicleQueueExcerpts {
         @NotNull
         @Override
         public DocumentContext writingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+            if (ringBuffer != null)
+                return writingBufferedDocument(metaData);
             assert checkAppendingThread();
             assert checkWritePositionHeaderNumber();
             boolean ok = false;
@@ -292,7 +327,7 @@ public class SingleChronicleQueueExcerpts {
                 for (int i = 0; i < 128; i++) {
                     try {
                         assert wire != null;
-                        long pos = store.writeHeader(wire, Wires.UNKNOWN_LENGTH, safeLength, timeoutMS());
+                        long pos = writeHeader(Wires.UNKNOWN_LENGTH, safeLength);
                         position(pos);
                         context.isClosed = false;
                         context.wire = wire;
@@ -313,8 +348,38 @@ public class SingleChronicleQueueExcerpts {
             }
         }
 
+        /**
+         * The excerpt is written to a buffer wire, and copied into the ring buffer on close. A
+         * background thread copies it from the ring buffer into the queue.
+         */
+        @NotNull
+        private DocumentContext writingBufferedDocument(boolean metaData) {
+            assert checkAppendingThread();
+            context.isClosed = false;
+            context.buffered = true;
+            context.wire = acquireBufferWire();
+            context.padToCacheAlign = padToCacheAlignMode() != Padding.NEVER;
+            context.metaData(metaData);
+            return context;
+        }
+
+        private void offerToRingBuffer(@NotNull Bytes<?> bytes, boolean metaData, boolean padToCacheAlign)
+                throws UnrecoverableTimeoutException {
+            assert ringBuffer != null;
+            int flags = (metaData ? MultiWriterBytesRingBuffer.META_DATA : 0)
+                    | (padToCacheAlign ? MultiWriterBytesRingBuffer.PAD_TO_CACHE_ALIGN : 0);
+            long start = System.currentTimeMillis();
+            while (!ringBuffer.offer(bytes, flags)) {
+                if (System.currentTimeMillis() > start + timeoutMS())
+                    throw new UnrecoverableTimeoutException(new TimeoutException("The ring buffer was full for " + timeoutMS() + " ms"));
+                Thread.yield();
+            }
+        }
+
         private int handleRoll(int cycle) {
             assert !((AbstractWire) wire).isInsideHeader();
+            // so a queue which rolls on size moves on from this cycle.
+            queue.onEndOfCycle(cycle);
             int qCycle = queue.cycle();
             if (cycle < queue.cycle()) {
                 setCycle2(cycle = qCycle, true);
@@ -390,10 +455,115 @@ public class SingleChronicleQueueExcerpts {
 
         @Override
         public void writeBytes(@NotNull BytesStore bytes) throws UnrecoverableTimeoutException {
+            if (ringBuffer != null) {
+                try (DocumentContext dc = writingDocument()) {
+                    dc.wire().bytes().write(bytes);
+                    ((StoreAppenderContext) dc).padToCacheAlign = false;
+                }
+                return;
+            }
             // still uses append as it has a known length.
             append(Maths.toUInt31(bytes.readRemaining()), (m, w) -> w.bytes().write(m), bytes);
         }
 
+        /**
+         * Writes the batch with one header CAS for as many excerpts as fit in the overlap size.
+         * The excerpts after the first are written behind its NOT_COMPLETE header, so no tailer
+         * or other appender can see them until the first header is completed.
+         *
+         * @param batch of excerpts to write in order.
+         */
+        @Override
+        public void writeBytes(@NotNull BytesStore[] batch) throws UnrecoverableTimeoutException {
+            if (ringBuffer != null) {
+                ExcerptAppender.super.writeBytes(batch);
+                return;
+            }
+            long safeLength = queue.overlapSize();
+            for (int from = 0; from < batch.length; ) {
+                long total = 4 + lengthOf(batch[from]);
+                int to = from + 1;
+                while (to < batch.length && total + 4 + lengthOf(batch[to]) <= safeLength)
+                    total += 4 + lengthOf(batch[to++]);
+                writeBatch(batch, from, to, Maths.toUInt31(total));
+                from = to;
+            }
+        }
+
+        private long lengthOf(@NotNull BytesStore bytes) {
+            long length = bytes.readRemaining();
+            if (length <= 0)
+                throw new UnsupportedOperationException("Cannot append a zero length message");
+            return length;
+        }
+
+        private void writeBatch(@NotNull BytesStore[] batch, int from, int to, int totalLength)
+                throws UnrecoverableTimeoutException {
+            assert checkAppendingThread();
+            try {
+                int cycle = queue.cycle();
+                if (this.cycle != cycle || wire == null)
+                    rollCycleTo(cycle);
+
+                for (int i = 0; ; i++) {
+                    try {
+                        position(writeHeader(Wires.UNKNOWN_LENGTH, totalLength));
+                        break;
+                    } catch (EOFException theySeeMeRolling) {
+                        if (i >= 128)
+                            throw new IllegalStateException("Unable to roll to the current cycle");
+                        cycle = handleRoll(cycle);
+                    }
+                }
+
+                Bytes<?> bytes = wire.bytes();
+                bytes.write(batch[from]);
+                long endOfFirst = bytes.writePosition();
+                long lastPosition = position;
+                for (int i = from + 1; i < to; i++) {
+                    lastPosition = bytes.writePosition();
+                    bytes.writeInt(Maths.toUInt31(batch[i].readRemaining()));
+                    bytes.write(batch[i]);
+                }
+                long end = bytes.writePosition();
+
+                // completing the first header publishes the whole batch.
+                bytes.writePosition(endOfFirst);
+                wire.updateHeader(position, false);
+                bytes.writePosition(end);
+
+                long firstIndex = wire.headerNumber();
+                if (firstIndex != Long.MIN_VALUE)
+                    wire.headerNumber(firstIndex + to - from - 1);
+                lastIndex(wire.headerNumber());
+                this.lastPosition = lastPosition;
+                lastCycle = cycle;
+                store.writePosition(lastPosition);
+                queue.afterAppend(cycle, store, lastIndex, end - position);
+
+                if (firstIndex != Long.MIN_VALUE)
+                    writeIndexForBatch(batch, from, to, firstIndex);
+
+            } catch (StreamCorruptedException e) {
+                throw new AssertionError(e);
+            } finally {
+                assert resetAppendingThread();
+            }
+        }
+
+        private void writeIndexForBatch(@NotNull BytesStore[] batch, int from, int to, long firstIndex)
+                throws StreamCorruptedException {
+            long pos = position;
+            RollCycle rollCycle = queue.rollCycle();
+            for (int i = from; i < to; i++) {
+                long index = firstIndex + i - from;
+                // only the excerpts which fall on the index spacing need an entry.
+                if (!store.indexable(rollCycle.toSequenceNumber(index)))
+                    writeIndexForPosition(index, pos);
+                pos += 4 + batch[i].readRemaining();
+            }
+        }
+
         @Nullable
         Wire acquireBufferWire() {
             if (bufferWire == null) {
@@ -421,7 +591,7 @@ public class SingleChronicleQueueExcerpts {
                     int length = bytes.length();
                     // sets the position
                     wire.headerNumber(index);
-                    position(store.writeHeader(wire, length, length, timeoutMS()));
+                    position(writeHeader(length, length));
                     wireBytes.write(bytes);
                     wire.updateHeader(length, position, false);
 
@@ -431,6 +601,7 @@ public class SingleChronicleQueueExcerpts {
                     lastPosition = position;
                     lastCycle = cycle;
                     store.writePosition(position);
+                    queue.afterAppend(cycle, store, index, wireBytes.writePosition() - position);
 
                 } catch (EOFException theySeeMeRolling) {
                     if (wireBytes.compareAndSwapInt(wireBytes.writePosition(), Wires.END_OF_DATA, Wires.NOT_COMPLETE)) {
@@ -505,9 +676,27 @@ public class SingleChronicleQueueExcerpts {
             return scanResult;
         }
 
+        /**
+         * Writes a header for an excerpt, recording how long it took with the metrics.
+         */
+        private long writeHeader(int length, int safeLength) throws EOFException, UnrecoverableTimeoutException {
+            QueueMetrics metrics = queue.queueMetrics();
+            if (metrics == null)
+                return store.writeHeader(wire, length, safeLength, timeoutMS());
+            long start = System.nanoTime();
+            try {
+                return store.writeHeader(wire, length, safeLength, timeoutMS());
+            } finally {
+                metrics.onHeaderWait(System.nanoTime() - start);
+            }
+        }
+
         @Override
         public long lastIndexAppended() {
 
+            if (ringBuffer != null)
+                throw new IllegalStateException("The last index appended is not known when the writeBufferMode is Asynchronous");
+
             if (lastIndex != Long.MIN_VALUE)
                 return lastIndex;
 
@@ -517,7 +706,9 @@ public class SingleChronicleQueueExcerpts {
             }
 
             try {
-                long sequenceNumber = store.sequenceForPosition(this, lastPosition, true);
+                long sequenceNumber = lastCycle == cycle
+                        ? sequenceForPosition(lastPosition, true)
+                        : store.sequenceForPosition(this, lastPosition, true);
                 long index = queue.rollCycle().toIndex(lastCycle, sequenceNumber);
                 lastIndex(index);
                 return index;
@@ -526,6 +717,32 @@ public class SingleChronicleQueueExcerpts {
             }
         }
 
+        /**
+         * Finds the sequence number for a position in the current store, scanning on from the last
+         * position resolved when it is before this one. With lazyIndexing this is usually a scan
+         * of only the excerpts written since the last call.
+         *
+         * @param position  of an excerpt in the current store
+         * @param inclusive true for the sequence number of the excerpt at this position, false for
+         *                  the one before it.
+         */
+        private long sequenceForPosition(long position, boolean inclusive) throws StreamCorruptedException {
+            if (inclusive && position == resolvedPosition)
+                return resolvedSequence;
+            long sequence = Long.MIN_VALUE;
+            if (resolvedPosition >= 0 && resolvedPosition < position && store instanceof SingleChronicleQueueStore)
+                sequence = ((SingleChronicleQueueStore) store).sequenceForPosition(this, position, inclusive,
+                        resolvedPosition, resolvedSequence);
+            if (sequence == Long.MIN_VALUE)
+                sequence = store.sequenceForPosition(this, position, inclusive);
+            // only an excerpt has a sequence number of its own to scan on from.
+            if (inclusive && Wires.isReadyData(wire.bytes().readVolatileInt(position))) {
+                resolvedPosition = position;
+                resolvedSequence = sequence;
+            }
+            return sequence;
+        }
+
         @Override
         public int cycle() {
             if (cycle == Integer.MIN_VALUE) {
@@ -561,7 +778,7 @@ public class SingleChronicleQueueExcerpts {
                     rollCycleTo(cycle);
 
                 try {
-                    position(store.writeHeader(wire, length, length, timeoutMS()));
+                    position(writeHeader(length, length));
                     assert ((AbstractWire) wire).isInsideHeader();
                     beforeAppend(wire, wire.headerNumber() + 1);
                     wireWriter.write(writer, wire);
@@ -571,6 +788,7 @@ public class SingleChronicleQueueExcerpts {
                     lastCycle = cycle;
                     store.writePosition(position);
                     writeIndexForPosition(lastIndex, position);
+                    queue.afterAppend(cycle, store, lastIndex, wire.bytes().writePosition() - position);
                 } catch (EOFException theySeeMeRolling) {
                     try {
                         append2(length, wireWriter, writer);
@@ -588,14 +806,21 @@ public class SingleChronicleQueueExcerpts {
         private void rollCycleTo(int cycle) throws UnrecoverableTimeoutException {
             if (this.cycle == cycle)
                 throw new AssertionError();
+            long start = System.nanoTime();
+            // the first cycle of an appender isn't a roll.
+            boolean wasRoll = wire != null;
             if (wire != null) {
                 try {
                     store.writeEOF(wire, timeoutMS());
+                    queue.onCycleSealed(this.cycle);
                 } catch (TimeoutException e) {
                     Jvm.warn().on(SingleChronicleQueueExcerpts.class, "Unable to terminate the previous cycle, continuing", e);
                 }
             }
             setCycle2(cycle, true);
+            QueueMetrics metrics = queue.queueMetrics();
+            if (metrics != null && wasRoll)
+                metrics.onRoll(System.nanoTime() - start);
         }
 
         /**
@@ -606,6 +831,7 @@ public class SingleChronicleQueueExcerpts {
             if (wire != null && queue.cycle() != cycle) {
                 try {
                     store.writeEOF(wire, timeoutMS());
+                    queue.onCycleSealed(cycle);
                 } catch (TimeoutException e) {
                     Jvm.warn().on(SingleChronicleQueueExcerpts.class, "Unable to terminate the previous cycle, continuing", e);
                 }
@@ -615,7 +841,7 @@ public class SingleChronicleQueueExcerpts {
         <T> void append2(int length, @NotNull WireWriter<T> wireWriter, T writer) throws
                 UnrecoverableTimeoutException, EOFException, StreamCorruptedException {
             setCycle(Math.max(queue.cycle(), cycle + 1), true);
-            position(store.writeHeader(wire, length, length, timeoutMS()));
+            position(writeHeader(length, length));
             beforeAppend(wire, wire.headerNumber() + 1);
             wireWriter.write(writer, wire);
             wire.updateHeader(length, position, false);
@@ -646,6 +872,8 @@ public class SingleChronicleQueueExcerpts {
             if (!lazyIndexing) {
                 long sequenceNumber = queue.rollCycle().toSequenceNumber(index);
                 store.setPositionForSequenceNumber(this, sequenceNumber, position);
+                if (timeIndex != null && !store.indexable(sequenceNumber))
+                    timeIndex.record(sequenceNumber, TimeIndex.nowNanos(queue.time()));
             }
         }
 
@@ -684,6 +912,7 @@ public class SingleChronicleQueueExcerpts {
 
             boolean isClosed;
             boolean padToCacheAlign = true;
+            boolean buffered = false;
             private boolean metaData = false;
             @Nullable
             private Wire wire;
@@ -727,6 +956,18 @@ public class SingleChronicleQueueExcerpts {
                     return;
                 }
 
+                if (buffered) {
+                    isClosed = true;
+                    buffered = false;
+                    try {
+                        offerToRingBuffer(wire.bytes(), metaData, padToCacheAlign);
+                    } finally {
+                        wire = StoreAppender.this.wire;
+                        assert resetAppendingThread();
+                    }
+                    return;
+                }
+
                 try {
                     if (wire == StoreAppender.this.wire) {
                         if (padToCacheAlign)
@@ -744,6 +985,7 @@ public class SingleChronicleQueueExcerpts {
                                 writeIndexForPosition(lastIndex, position);
                             else
                                 assert lazyIndexing || lastIndex == Long.MIN_VALUE || checkIndex(lastIndex, position);
+                            queue.afterAppend(cycle, store, lastIndex, wire.bytes().writePosition() - position);
                         }
                         assert checkWritePositionHeaderNumber();
                     } else if (wire != null) {
@@ -761,10 +1003,13 @@ public class SingleChronicleQueueExcerpts {
 
             @Override
             public long index() throws IORuntimeException {
+                // the index is only known once the excerpt has been copied from the ring buffer.
+                if (buffered)
+                    return Long.MIN_VALUE;
                 if (this.wire.headerNumber() == Long.MIN_VALUE) {
                     try {
-                        long headerNumber0 = queue.rollCycle().toIndex(cycle, store
-                                .sequenceForPosition(StoreAppender.this, position, false));
+                        long headerNumber0 = queue.rollCycle().toIndex(cycle,
+                                sequenceForPosition(position, false));
                         assert (((AbstractWire) this.wire).isInsideHeader());
                         return isMetaData() ? headerNumber0 : headerNumber0 + 1;
                     } catch (IOException e) {
@@ -792,6 +1037,10 @@ public class SingleChronicleQueueExcerpts {
      * Tailer
      */
     public static class StoreTailer implements ExcerptTailer, SourceContext, ExcerptContext {
+        private static final int AWAIT_SPINS = 1000;
+        private static final int AWAIT_YIELDS = 100;
+        private static final long MIN_PARK_NANOS = 1_000;
+        private static final long MAX_PARK_NANOS = 1_000_000;
         @NotNull
         private final SingleChronicleQueue queue;
         private final StoreTailerContext context = new StoreTailerContext();
@@ -807,15 +1056,40 @@ public class SingleChronicleQueueExcerpts {
         private boolean readAfterReplicaAcknowledged;
         @NotNull
         private TailerState state = UNINITIALISED;
+        @Nullable
+        private TimeIndex timeIndex;
+        private int timeIndexCycle = Integer.MIN_VALUE;
+        // the last index moveToIndex found, and the position of its header in that store.
+        @Nullable
+        private WireStore lastFoundStore;
+        private long lastFoundSequence, lastFoundPosition;
+        @Nullable
+        private final Madvise.Advisor advisor;
+        @Nullable
+        private TailerMetrics metrics;
+        @Nullable
+        private TailerLag lag;
+        // the header of the excerpt being read, or -1 between excerpts.
+        private long readingHeader = -1;
 
         public StoreTailer(@NotNull final SingleChronicleQueue queue) {
             this.queue = queue;
+            this.advisor = Madvise.Advisor.of(queue.madviseHints());
             this.setCycle(Integer.MIN_VALUE);
             this.index = 0;
             queue.addCloseListener(this, StoreTailer::close);
             indexSpacingMask = queue.rollCycle().defaultIndexSpacing() - 1;
         }
 
+        void metrics(@Nullable TailerMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Nullable
+        TailerMetrics metrics() {
+            return metrics;
+        }
+
         private static boolean isReadOnly(Bytes bytes) {
             return bytes instanceof MappedBytes &&
                     !((MappedBytes) bytes).mappedFile().file().canWrite();
@@ -843,6 +1117,37 @@ public class SingleChronicleQueueExcerpts {
             if (store != null)
                 queue.release(store);
             store = null;
+            if (timeIndex != null)
+                timeIndex.close();
+            timeIndex = null;
+            if (lag != null)
+                lag.release();
+        }
+
+        /**
+         * Works out the lag by counting the headers appended since it was last worked out, from
+         * the position of this tailer if it is in a cycle, otherwise from the start of the cycle.
+         */
+        @Override
+        public long lag() {
+            return updateLag().excerpts();
+        }
+
+        @Override
+        public long lagBytes() {
+            return updateLag().bytes();
+        }
+
+        @NotNull
+        private TailerLag updateLag() {
+            TailerLag lag = this.lag;
+            if (lag == null)
+                this.lag = lag = new TailerLag(queue);
+            long position = readingHeader;
+            if (position < 0 && state == FOUND_CYCLE && wire() != null)
+                position = wire().bytes().readPosition();
+            lag.update(index, position, position >= 0, Integer.MAX_VALUE);
+            return lag;
         }
 
         @Override
@@ -891,7 +1196,13 @@ public class SingleChronicleQueueExcerpts {
                     next = next0(includeMetaData);
 
                 if (context.present(next)) {
-                    context.setStart(context.wire().bytes().readPosition()-4);
+                    final Bytes<?> bytes = context.wire().bytes();
+                    readingHeader = bytes.readPosition() - 4;
+                    context.setStart(readingHeader);
+                    if (advisor != null && store != null && bytes instanceof MappedBytes)
+                        advisor.onRead((MappedBytes) bytes, bytes.readPosition(), store);
+                    if (metrics != null)
+                        metrics.onRead(index, bytes.readLimit(), bytes.readRemaining() + 4);
                     return context;
                 }
                 RollCycle rollCycle = queue.rollCycle();
@@ -909,6 +1220,71 @@ public class SingleChronicleQueueExcerpts {
             return NoDocumentContext.INSTANCE;
         }
 
+        /**
+         * Reads the complete excerpts up to the write position of the current cycle with one
+         * volatile read of the write position. If this tailer is not in a cycle yet, the first
+         * excerpt is read as by {@link #readingDocument()}, which finds the cycle. At the end of a
+         * cycle, or when this tailer is not reading forward, this falls back to reading one
+         * document at a time.
+         */
+        @Override
+        public int readBatch(int maxMessages, @NotNull BatchHandler handler) {
+            if (direction != FORWARD || readAfterReplicaAcknowledged || maxMessages <= 0)
+                return ExcerptTailer.super.readBatch(maxMessages, handler);
+
+            int count = 0;
+            if (state != FOUND_CYCLE || store == null || wire() == null) {
+                try (DocumentContext dc = readingDocument()) {
+                    if (!dc.isPresent())
+                        return 0;
+                    handler.onExcerpt(dc.index(), dc.wire());
+                }
+                count = 1;
+                if (count == maxMessages || state != FOUND_CYCLE || store == null || wire() == null)
+                    return count;
+            }
+            int read = readInCycle(maxMessages - count, handler);
+            if (read == 0 && count == 0)
+                return ExcerptTailer.super.readBatch(maxMessages, handler);
+            return count + read;
+        }
+
+        private int readInCycle(int maxMessages, @NotNull BatchHandler handler) {
+            assert store != null;
+            final Wire wire = wire();
+            final Bytes<?> bytes = wire.bytes();
+            final long end = store.writePosition();
+            final long start = bytes.readPosition();
+            long pos = start;
+            long index = this.index;
+            int count = 0;
+            try {
+                while (count < maxMessages && pos <= end) {
+                    int header = bytes.readVolatileInt(pos);
+                    // not written yet, not complete or the end of the cycle.
+                    if (header == 0 || !Wires.isReady(header))
+                        break;
+                    int length = Wires.lengthOf(header);
+                    if (Wires.isReadyData(header)) {
+                        bytes.readLimit(pos + 4 + length);
+                        bytes.readPosition(pos + 4);
+                        handler.onExcerpt(index++, wire);
+                        count++;
+                    }
+                    pos += 4 + length;
+                }
+            } finally {
+                bytes.readLimit(bytes.capacity());
+                bytes.readPosition(pos);
+                index(index);
+            }
+            if (advisor != null && bytes instanceof MappedBytes)
+                advisor.onRead((MappedBytes) bytes, pos, store);
+            if (metrics != null && count > 0)
+                metrics.onReadBatch(index - 1, pos, count, pos - start);
+            return count;
+        }
+
         private boolean next0(boolean includeMetaData) throws UnrecoverableTimeoutException, StreamCorruptedException {
             for (int i = 0; i < 1000; i++) {
                 switch (state) {
@@ -1195,17 +1571,119 @@ public class SingleChronicleQueueExcerpts {
             }
 
             index(index);
-            ScanResult scanResult = this.store.moveToIndexForRead(this, sequenceNumber);
+            ScanResult scanResult = null;
+            // moving forward a little, e.g. replaying by index, is a short scan from the last index found.
+            if (lastFoundStore == store)
+                scanResult = ((SingleChronicleQueueStore) store).moveToIndexForRead(this, sequenceNumber,
+                        lastFoundSequence, lastFoundPosition);
+            if (scanResult == null)
+                scanResult = this.store.moveToIndexForRead(this, sequenceNumber);
 
             Bytes<?> bytes = wire().bytes();
             if (scanResult == FOUND) {
                 state = FOUND_CYCLE;
+                if (store instanceof SingleChronicleQueueStore) {
+                    lastFoundStore = store;
+                    lastFoundSequence = sequenceNumber;
+                    lastFoundPosition = bytes.readPosition();
+                }
                 return scanResult;
             }
             bytes.readLimit(bytes.readPosition());
             return scanResult;
         }
 
+        @Override
+        public boolean awaitData(long timeout, @NotNull TimeUnit unit) {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            long parkNanos = MIN_PARK_NANOS;
+            for (int i = 0; ; i++) {
+                if (hasData())
+                    return true;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return false;
+                if (i < AWAIT_SPINS)
+                    continue;
+                if (i < AWAIT_SPINS + AWAIT_YIELDS) {
+                    Thread.yield();
+                    continue;
+                }
+                // an appender in another process can't wake this, so back off to a limit.
+                queue.dataNotifier().await(Math.min(remaining, parkNanos), this::hasData);
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            }
+        }
+
+        /**
+         * @return true if readingDocument() may find an excerpt or the end of the cycle.
+         */
+        private boolean hasData() {
+            if (direction != FORWARD)
+                return true;
+            Wire wire = wire();
+            if (state == FOUND_CYCLE && wire != null) {
+                Bytes<?> bytes = wire.bytes();
+                // the limit is only opened to read the header, the tailer's own state is untouched.
+                long readLimit = bytes.readLimit();
+                int header;
+                try {
+                    bytes.readLimit(bytes.capacity());
+                    header = bytes.readVolatileInt(bytes.readPosition());
+                } finally {
+                    bytes.readLimit(readLimit);
+                }
+                if (header == 0)
+                    // the appender may have rolled on without writing the end of this cycle.
+                    return queue.lastCycle() > cycle;
+                // nothing written yet is ready as far as isReady() is concerned.
+                return header == Wires.END_OF_DATA || Wires.isReady(header);
+            }
+            int lastCycle = queue.lastCycle();
+            return lastCycle != Integer.MIN_VALUE && (state == UNINITIALISED || lastCycle > cycle);
+        }
+
+        @Override
+        public boolean moveBeforeTime(long epochNanos) {
+            RollCycle rollCycle = queue.rollCycle();
+            int firstCycle = queue.firstCycle();
+            if (firstCycle == Integer.MAX_VALUE)
+                return false;
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(epochNanos);
+            int timeCycle = (int) Math.floorDiv(millis - queue.epoch(), (long) rollCycle.length());
+            if (timeCycle < firstCycle) {
+                toStart();
+                return true;
+            }
+
+            // cycles are written in time order, so only the first cycle needs searching. When
+            // cycles roll on size, that is the last cycle started by this time, as it can still
+            // be appended to after its own time has passed.
+            int startCycle = queue.rollsOnSize() ? queue.cycleAtOrBefore(timeCycle) : Integer.MIN_VALUE;
+            if (startCycle == Integer.MIN_VALUE)
+                startCycle = queue.cycleAtOrAfter(timeCycle);
+            for (int cycle = startCycle; cycle != Integer.MIN_VALUE;
+                 cycle = queue.cycleAtOrAfter(cycle + 1)) {
+                long sequence = cycle == startCycle ? timeSequenceBefore(cycle, epochNanos) : 0;
+                if (moveToIndex(rollCycle.toIndex(cycle, sequence)))
+                    return true;
+            }
+            toEnd();
+            return false;
+        }
+
+        private long timeSequenceBefore(int cycle, long epochNanos) {
+            if (timeIndexCycle != cycle) {
+                if (timeIndex != null)
+                    timeIndex.close();
+                timeIndex = TimeIndex.of(queue.fileForCycle(cycle), queue.indexSpacing(), false, queue.isReadOnly());
+                // try again later if there is none yet.
+                timeIndexCycle = timeIndex == null ? Integer.MIN_VALUE : cycle;
+            }
+            return timeIndex == null ? 0 : Math.max(0, timeIndex.sequenceBefore(epochNanos));
+        }
+
         @NotNull
         @Override
         public final ExcerptTailer toStart() {
@@ -1569,8 +2047,8 @@ public class SingleChronicleQueueExcerpts {
         public void setCycle(int cycle) {
             this.cycle = cycle;
 
-            timeForNextCycle = cycle == Integer.MIN_VALUE ? Long.MAX_VALUE :
-                    (long) (cycle + 1) * queue.rollCycle().length() + queue.epoch();
+            // a cycle which rolls on size is appended to until the roll boundary.
+            timeForNextCycle = cycle == Integer.MIN_VALUE ? Long.MAX_VALUE : queue.timeForNextCycle(cycle);
 
         }
 
@@ -1591,6 +2069,7 @@ public class SingleChronicleQueueExcerpts {
 
             @Override
             public void close() {
+                readingHeader = -1;
                 if (isPresent())
                     incrementIndex();
 
@@ -244,6 +244,37 @@ public class SingleChronicleQueueStore implements WireStore {
         }
     }
 
+    /**
+     * Finds the sequence number for a position by scanning from an excerpt before it whose
+     * sequence number is known.
+     *
+     * @param ec            the data structure we are navigating
+     * @param position      to find the sequence number for
+     * @param inclusive     true for the excerpt at the position, false for the one before it
+     * @param knownPosition the position of an excerpt before it
+     * @param knownSequence the sequence number of the excerpt at {@code knownPosition}
+     * @return the sequence number, or Long.MIN_VALUE if it couldn't be found this way.
+     */
+    long sequenceForPosition(@NotNull ExcerptContext ec, long position, boolean inclusive,
+                             long knownPosition, long knownSequence) {
+        try {
+            return indexing.linearScanByPosition(ec.wireForIndex(), position, knownSequence, knownPosition, inclusive);
+        } catch (@NotNull EOFException | IllegalArgumentException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Moves the position to the index by scanning from an index before it whose position is known,
+     * if that is quicker than using the index.
+     *
+     * @return whether the index was found for reading, or null if the index should be used instead.
+     */
+    @Nullable
+    ScanResult moveToIndexForRead(@NotNull ExcerptContext ec, long index, long knownIndex, long knownPosition) {
+        return indexing.moveToIndexFrom(ec, index, knownIndex, knownPosition);
+    }
+
     @Override
     public void reserve() throws IllegalStateException {
         this.refCount.reserve();
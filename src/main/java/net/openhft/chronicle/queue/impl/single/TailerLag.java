@@ -0,0 +1,228 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.WireStore;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.ParseException;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static net.openhft.chronicle.queue.TailerDirection.FORWARD;
+
+/**
+ * Works out how far a reader is behind the appenders of a queue, in excerpts and bytes. <p> In the
+ * cycle of the reader, and in the last cycle if the reader is whole cycles behind, this follows the
+ * headers from a position whose sequence number is known to the write position of the store, and
+ * remembers how far it got, so each header is only read once however often the lag is worked out,
+ * and the lag of a reader keeping up costs a volatile read. The cycles in between are taken to be
+ * sealed, as a later cycle exists, and are counted once with {@link
+ * SingleChronicleQueue#exceptsPerCycle(int)} and cached. </p> <p> It is used by one thread only.
+ * </p>
+ */
+final class TailerLag {
+    @NotNull
+    private final SingleChronicleQueue queue;
+    @NotNull
+    private Counter reader = new Counter(), last = new Counter();
+    // the excerpts and bytes of each sealed cycle after the reader's.
+    private final NavigableMap<Integer, long[]> sealed = new TreeMap<>();
+    // the cycles the sealed totals are between.
+    private int sealedAfter = Integer.MIN_VALUE, sealedBefore = Integer.MIN_VALUE;
+    private long sealedExcerpts, sealedBytes;
+    private long excerpts = -1, lagBytes = -1;
+
+    TailerLag(@NotNull SingleChronicleQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * @param index      of the next excerpt the reader will read
+     * @param position   of the header of that excerpt, or -1 if not known
+     * @param anchored   whether the position and index are known to match, so headers before the
+     *                   position needn't be counted.
+     * @param maxHeaders to read this time in each cycle counted, the rest are read next time.
+     * @return true if the lag is up to date, false if there are headers still to read.
+     */
+    boolean update(long index, long position, boolean anchored, int maxHeaders) {
+        RollCycle rollCycle = queue.rollCycle();
+        int cycle = rollCycle.toCycle(index);
+        long sequence = rollCycle.toSequenceNumber(index);
+        int lastCycle = queue.lastCycle();
+        if (lastCycle == Integer.MIN_VALUE || cycle > lastCycle) {
+            release();
+            excerpts = lagBytes = 0;
+            return true;
+        }
+
+        // a new cycle, or the reader has moved outside what has been counted.
+        if (cycle != reader.cycle || anchored && (position < reader.startPosition || position > reader.position)) {
+            if (cycle == last.cycle && (!anchored || position <= last.position)) {
+                // the reader has caught up with the last cycle, which has been counted from the start.
+                Counter counter = reader;
+                reader = last;
+                last = counter;
+                last.release();
+            } else if (anchored && position >= 0) {
+                reader.start(cycle, position, sequence);
+            } else {
+                reader.start(cycle, 0, 0);
+            }
+        }
+        boolean complete = reader.count(maxHeaders);
+        if (!complete && reader.sequence < sequence)
+            // the counting hasn't caught up with the reader yet.
+            return false;
+
+        long excerpts = Math.max(0, reader.sequence - sequence);
+        long lagBytes = Math.max(0, reader.position - Math.max(position, 0));
+        if (cycle < lastCycle) {
+            if (cycle != sealedAfter || lastCycle != sealedBefore) {
+                try {
+                    sumSealed(cycle, lastCycle);
+                } catch (ParseException | IllegalStateException e) {
+                    // the cycles have changed while counting, keep what was counted before.
+                    return false;
+                }
+            }
+            if (last.cycle != lastCycle)
+                last.start(lastCycle, 0, 0);
+            if (!last.count(maxHeaders))
+                return false;
+            excerpts += sealedExcerpts + last.sequence;
+            lagBytes += sealedBytes + last.position;
+        } else {
+            last.release();
+        }
+        this.excerpts = excerpts;
+        this.lagBytes = lagBytes;
+        return complete;
+    }
+
+    /**
+     * Sums the cycles after the reader's and before the last, counting the ones not seen before.
+     */
+    private void sumSealed(int cycle, int lastCycle) throws ParseException {
+        sealed.headMap(cycle, true).clear();
+        sealed.tailMap(lastCycle, true).clear();
+        // the next cycle can only be looked up from a cycle which exists.
+        int firstCycle = queue.firstCycle();
+        int first = reader.store != null ? queue.nextCycle(cycle, FORWARD)
+                : cycle < firstCycle ? firstCycle : lastCycle;
+        long excerpts = 0, bytes = 0;
+        for (int c = first; c != -1 && c < lastCycle; c = queue.nextCycle(c, FORWARD)) {
+            long[] totals = sealed.get(c);
+            if (totals == null) {
+                totals = new long[]{Math.max(0, queue.exceptsPerCycle(c)), 0};
+                WireStore store = queue.storeForCycle(c, queue.epoch(), false);
+                if (store != null) {
+                    totals[1] = store.writePosition();
+                    queue.release(store);
+                }
+                sealed.put(c, totals);
+            }
+            excerpts += totals[0];
+            bytes += totals[1];
+        }
+        sealedExcerpts = excerpts;
+        sealedBytes = bytes;
+        sealedAfter = cycle;
+        sealedBefore = lastCycle;
+    }
+
+    /**
+     * @return the excerpts after the reader, as of the last update, or -1 if not known.
+     */
+    long excerpts() {
+        return excerpts;
+    }
+
+    /**
+     * @return the bytes after the reader, including the headers, as of the last update, or -1 if
+     * not known.
+     */
+    long bytes() {
+        return lagBytes;
+    }
+
+    void release() {
+        reader.release();
+        last.release();
+        sealed.clear();
+        sealedAfter = sealedBefore = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Follows the headers of one cycle, counting the data excerpts.
+     */
+    private final class Counter {
+        private int cycle = Integer.MIN_VALUE;
+        @Nullable
+        private WireStore store;
+        @Nullable
+        private MappedBytes bytes;
+        // where the count started, the next header to count, and the sequence number it will have if it is data.
+        private long startPosition, position, sequence;
+
+        void start(int cycle, long position, long sequence) {
+            release();
+            this.cycle = cycle;
+            this.startPosition = this.position = position;
+            this.sequence = sequence;
+            store = queue.storeForCycle(cycle, queue.epoch(), false);
+            if (store != null)
+                bytes = store.bytes();
+        }
+
+        /**
+         * Counts the data excerpts up to and including the one at the write position of the store.
+         */
+        boolean count(int maxHeaders) {
+            if (store == null || bytes == null)
+                return true;
+            long writePosition = store.writePosition();
+            for (int i = 0; i < maxHeaders; i++) {
+                if (position > writePosition)
+                    return true;
+                int header = bytes.readVolatileInt(position);
+                // not complete yet, the rest are counted next time.
+                if (header == 0 || !Wires.isReady(header))
+                    return true;
+                if (Wires.isReadyData(header))
+                    sequence++;
+                position += 4 + Wires.lengthOf(header);
+            }
+            return position > writePosition;
+        }
+
+        void release() {
+            cycle = Integer.MIN_VALUE;
+            if (bytes != null) {
+                bytes.release();
+                bytes = null;
+            }
+            if (store != null) {
+                queue.release(store);
+                store = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.TailerMetricsMXBean;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.ObjectName;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a named tailer. Only the thread using the tailer records its reads, and only the
+ * event loop of the queue works out its rate and lag, from the position of its last read.
+ */
+class TailerMetrics implements TailerMetricsMXBean {
+    @NotNull
+    private final String name;
+    @NotNull
+    private final String path;
+    private final LongAdder excerptsRead = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    // ordered writes, as they are only read by the event loop and JMX.
+    private final AtomicLong lastIndexRead = new AtomicLong(-1);
+    private final AtomicLong nextPosition = new AtomicLong(-1);
+    private volatile long startIndex = -1;
+    private volatile long excerptsReadPerSecond;
+    private volatile long lagExcerpts = -1, lagBytes = -1;
+    private volatile long lagThresholdExcerpts, lagThresholdBytes;
+    private volatile boolean lagging = false;
+    private volatile long lagAlertCount;
+    // the tailer recording these, held weakly so a tailer which is dropped can be unregistered.
+    @NotNull
+    private volatile WeakReference<Object> owner = new WeakReference<>(null);
+    @Nullable
+    private ObjectName objectName;
+    // used by the event loop only.
+    @NotNull
+    private final TailerLag lag;
+    private long lastExcerptsRead;
+
+    TailerMetrics(@NotNull String name, @NotNull SingleChronicleQueue queue, long lagThresholdExcerpts, long lagThresholdBytes) {
+        this.name = name;
+        this.path = queue.file().getAbsolutePath();
+        this.lag = new TailerLag(queue);
+        this.lagThresholdExcerpts = lagThresholdExcerpts;
+        this.lagThresholdBytes = lagThresholdBytes;
+    }
+
+    /**
+     * A tailer of the same name takes these over, starting from where it is.
+     */
+    void owner(@NotNull Object tailer) {
+        lastIndexRead.set(-1);
+        nextPosition.set(-1);
+        startIndex = -1;
+        owner = new WeakReference<>(tailer);
+    }
+
+    /**
+     * @return true if the tailer recording these has been garbage collected.
+     */
+    boolean isDiscarded() {
+        return owner.get() == null;
+    }
+
+    void objectName(@Nullable ObjectName objectName) {
+        this.objectName = objectName;
+    }
+
+    @Nullable
+    ObjectName objectName() {
+        return objectName;
+    }
+
+    /**
+     * @param index where the tailer starts, until it has read an excerpt.
+     */
+    void startIndex(long index) {
+        startIndex = index;
+    }
+
+    void onRead(long index, long nextPosition, long bytes) {
+        excerptsRead.increment();
+        bytesRead.add(bytes);
+        this.nextPosition.lazySet(nextPosition);
+        lastIndexRead.lazySet(index);
+    }
+
+    void onReadBatch(long lastIndex, long nextPosition, int count, long bytes) {
+        excerptsRead.add(count);
+        bytesRead.add(bytes);
+        this.nextPosition.lazySet(nextPosition);
+        lastIndexRead.lazySet(lastIndex);
+    }
+
+    /**
+     * Called from the event loop of the queue every interval.
+     */
+    void updateRates(long intervalMS) {
+        long read = excerptsRead.sum();
+        excerptsReadPerSecond = (read - lastExcerptsRead) * 1000 / intervalMS;
+        lastExcerptsRead = read;
+    }
+
+    /**
+     * Called from the event loop of the queue every interval. The position of the last read
+     * can be out by one excerpt from its index, so the lag is counted from the start of the cycle
+     * rather than from the position, which is only used for the bytes.
+     *
+     * @param maxHeaders to read this time, so the first count of a long cycle doesn't hold up the
+     *                   event loop.
+     */
+    void updateLag(int maxHeaders) {
+        long last = lastIndexRead.get();
+        long nextIndex = last >= 0 ? last + 1 : startIndex;
+        if (nextIndex < 0)
+            return;
+        if (!lag.update(nextIndex, last >= 0 ? nextPosition.get() : -1, false, maxHeaders))
+            return;
+        long excerpts = lag.excerpts();
+        long bytes = lag.bytes();
+        lagExcerpts = excerpts;
+        lagBytes = bytes;
+
+        long thresholdExcerpts = lagThresholdExcerpts;
+        long thresholdBytes = lagThresholdBytes;
+        boolean over = thresholdExcerpts > 0 && excerpts >= thresholdExcerpts
+                || thresholdBytes > 0 && bytes >= thresholdBytes;
+        if (over && !lagging) {
+            lagging = true;
+            lagAlertCount++;
+            Jvm.warn().on(getClass(), "The tailer " + name + " of " + path + " is " + excerpts
+                    + " excerpts and " + bytes + " bytes behind");
+        } else if (!over && lagging) {
+            lagging = false;
+            Jvm.debug().on(getClass(), "The tailer " + name + " of " + path + " has caught up");
+        }
+    }
+
+    void close() {
+        lag.release();
+    }
+
+    @NotNull
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getExcerptsRead() {
+        return excerptsRead.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getExcerptsReadPerSecond() {
+        return excerptsReadPerSecond;
+    }
+
+    @Override
+    public long getLastIndexRead() {
+        return lastIndexRead.get();
+    }
+
+    @Override
+    public long getLagExcerpts() {
+        return lagExcerpts;
+    }
+
+    @Override
+    public long getLagBytes() {
+        return lagBytes;
+    }
+
+    @Override
+    public boolean isLagging() {
+        return lagging;
+    }
+
+    @Override
+    public long getLagAlertCount() {
+        return lagAlertCount;
+    }
+
+    @Override
+    public long getLagThresholdExcerpts() {
+        return lagThresholdExcerpts;
+    }
+
+    @Override
+    public void setLagThresholdExcerpts(long lagThresholdExcerpts) {
+        this.lagThresholdExcerpts = lagThresholdExcerpts;
+    }
+
+    @Override
+    public long getLagThresholdBytes() {
+        return lagThresholdBytes;
+    }
+
+    @Override
+    public void setLagThresholdBytes(long lagThresholdBytes) {
+        this.lagThresholdBytes = lagThresholdBytes;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "TailerMetrics{" +
+                "name='" + name + '\'' +
+                ", excerptsRead=" + excerptsRead +
+                ", lastIndexRead=" + Long.toHexString(lastIndexRead.get()) +
+                ", lagExcerpts=" + lagExcerpts +
+                '}';
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.time.TimeProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time, in epoch nanoseconds, each indexed excerpt of a cycle was indexed, kept in a file
+ * next to the cycle file. <p> The file holds the number of slots used, the index spacing, then a
+ * slot for every index spacing excerpts. Slots are set once with a CAS so appenders and indexers
+ * in several processes can record the same cycle. </p>
+ */
+class TimeIndex implements Closeable {
+    static final String SUFFIX = ".cq4t";
+    private static final long USED = 0;
+    private static final long SPACING = 8;
+    private static final long HEADER_SIZE = 64;
+    private static final long CHUNK_SIZE = 1 << 20;
+
+    @NotNull
+    private final MappedBytes bytes;
+    private final int spacing;
+
+    private TimeIndex(@NotNull MappedBytes bytes, int spacing) {
+        this.bytes = bytes;
+        this.spacing = spacing;
+    }
+
+    /**
+     * @param storeFile      the cycle file to index
+     * @param indexSpacing   the spacing for a new time index, an existing one keeps its own.
+     * @param createIfAbsent false to return null when there is no time index for this cycle.
+     * @param readOnly       to map the file read only
+     * @return the time index for the cycle.
+     */
+    @Nullable
+    static TimeIndex of(@NotNull File storeFile, int indexSpacing, boolean createIfAbsent, boolean readOnly) {
+        File file = fileFor(storeFile);
+        if (!createIfAbsent && !file.exists())
+            return null;
+        try {
+            MappedBytes bytes = MappedBytes.mappedBytes(file, CHUNK_SIZE, OS.pageSize(), readOnly);
+            int spacing = bytes.readVolatileInt(SPACING);
+            if (spacing == 0 && !readOnly) {
+                bytes.compareAndSwapInt(SPACING, 0, indexSpacing);
+                spacing = bytes.readVolatileInt(SPACING);
+            }
+            if (spacing <= 0) {
+                bytes.release();
+                return null;
+            }
+            return new TimeIndex(bytes, spacing);
+
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    static File fileFor(@NotNull File storeFile) {
+        String name = storeFile.getName();
+        if (name.endsWith(SingleChronicleQueue.SUFFIX))
+            name = name.substring(0, name.length() - SingleChronicleQueue.SUFFIX.length());
+        return new File(storeFile.getParentFile(), name + SUFFIX);
+    }
+
+    static long nowNanos(@NotNull TimeProvider time) {
+        return TimeUnit.MILLISECONDS.toNanos(time.currentTimeMillis());
+    }
+
+    /**
+     * Records the time for a sequence number which falls on the index spacing, the first time
+     * recorded for a slot is kept.
+     */
+    void record(long sequenceNumber, long epochNanos) {
+        if (sequenceNumber % spacing != 0)
+            return;
+        long slot = sequenceNumber / spacing;
+        if (!bytes.compareAndSwapLong(offsetOf(slot), 0L, epochNanos))
+            return;
+        for (; ; ) {
+            long used = bytes.readVolatileLong(USED);
+            if (used > slot || bytes.compareAndSwapLong(USED, used, slot + 1))
+                return;
+        }
+    }
+
+    /**
+     * Finds the last indexed excerpt recorded before a time. Slots not recorded are treated as
+     * after the time, so an excerpt at or after the time is never skipped.
+     *
+     * @param epochNanos the time to search for
+     * @return the sequence number of the last indexed excerpt before this time, or -1 if none are.
+     */
+    long sequenceBefore(long epochNanos) {
+        long lo = 0, hi = bytes.readVolatileLong(USED) - 1;
+        long found = -1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            long time = bytes.readVolatileLong(offsetOf(mid));
+            if (time != 0 && time < epochNanos) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found < 0 ? -1 : found * spacing;
+    }
+
+    private static long offsetOf(long slot) {
+        return HEADER_SIZE + slot * 8;
+    }
+
+    @Override
+    public void close() {
+        bytes.release();
+    }
+}
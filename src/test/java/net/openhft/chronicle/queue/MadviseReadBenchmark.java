@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+
+/**
+ * Compares the read throughput of a tailer replaying a queue from the start, with and without
+ * madvise hints. Run on Linux with a queue larger than the free memory to see the effect of the
+ * hints on catch up reads, e.g. -DmadviseBenchmarkMB=16384
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MadviseReadBenchmark {
+    private static final int MESSAGE_SIZE = 1024;
+
+    @Param({"", "SEQUENTIAL", "SEQUENTIAL,DONT_NEED_BEHIND", "SEQUENTIAL,DONT_NEED_BEHIND,HUGE_PAGE"})
+    public String hints;
+
+    private File path;
+    private SingleChronicleQueue queue;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(".*" + MadviseReadBenchmark.class.getSimpleName() + ".*")
+                .build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        path = new File(OS.TARGET, "MadviseReadBenchmark-" + System.nanoTime());
+        long messages = Long.getLong("madviseBenchmarkMB", 1024) * (1 << 20) / MESSAGE_SIZE;
+        try (SingleChronicleQueue writeQueue = binary(path).rollCycle(RollCycles.DAILY).build()) {
+            ExcerptAppender appender = writeQueue.acquireAppender();
+            Bytes<?> message = Bytes.allocateDirect(MESSAGE_SIZE);
+            for (int i = 0; i < MESSAGE_SIZE; i++)
+                message.writeByte((byte) i);
+            for (long i = 0; i < messages; i++) {
+                appender.writeBytes(message);
+                message.readPosition(0);
+            }
+            message.release();
+        }
+
+        MadviseHint[] madviseHints = hints.isEmpty() ? new MadviseHint[0] : splitHints(hints);
+        queue = binary(path).rollCycle(RollCycles.DAILY).madviseHints(madviseHints).build();
+    }
+
+    private static MadviseHint[] splitHints(String hints) {
+        String[] names = hints.split(",");
+        MadviseHint[] madviseHints = new MadviseHint[names.length];
+        for (int i = 0; i < names.length; i++)
+            madviseHints[i] = MadviseHint.valueOf(names[i]);
+        return madviseHints;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        queue.close();
+        IOTools.deleteDirWithFiles(path.getPath(), 2);
+    }
+
+    @Benchmark
+    public long replay() {
+        ExcerptTailer tailer = queue.createTailer();
+        long sum = 0;
+        for (; ; ) {
+            try (DocumentContext dc = tailer.readingDocument()) {
+                if (!dc.isPresent())
+                    return sum;
+                Bytes<?> bytes = dc.wire().bytes();
+                sum += bytes.readLong(bytes.readPosition());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.Utils;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static org.junit.Assert.assertEquals;
+
+public class ReadBatchTest {
+
+    @Test
+    public void testReadBatch() {
+        File path = Utils.tempDir("testReadBatch");
+        try (SingleChronicleQueue queue = ChronicleQueueBuilder.single(path)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 100; i++) {
+                appender.writeText("msg-" + i);
+                // meta data is skipped by readBatch
+                if (i % 10 == 0)
+                    try (DocumentContext dc = appender.writingDocument(true)) {
+                        dc.wire().write("meta").int32(i);
+                    }
+            }
+
+            ExcerptTailer tailer = queue.createTailer();
+            long firstIndex = queue.firstIndex();
+            List<String> read = new ArrayList<>();
+            List<Long> indexes = new ArrayList<>();
+            BatchHandler handler = (index, wire) -> {
+                indexes.add(index);
+                read.add(wire.bytes().toString());
+            };
+
+            assertEquals(30, tailer.readBatch(30, handler));
+            assertEquals(70, tailer.readBatch(1000, handler));
+            assertEquals(0, tailer.readBatch(1000, handler));
+
+            assertEquals(100, read.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals("msg-" + i, read.get(i));
+                assertEquals(firstIndex + i, (long) indexes.get(i));
+            }
+
+            // the tailer can carry on reading one document at a time.
+            appender.writeText("last");
+            assertEquals("last", tailer.readText());
+        }
+    }
+
+    @Test
+    public void testReadBatchOnFreshTailer() {
+        File path = Utils.tempDir("testReadBatchOnFreshTailer");
+        try (SingleChronicleQueue queue = ChronicleQueueBuilder.single(path)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .build()) {
+            // created before there is a cycle to read.
+            ExcerptTailer tailer = queue.createTailer();
+            List<String> read = new ArrayList<>();
+            List<Long> indexes = new ArrayList<>();
+            BatchHandler handler = (index, wire) -> {
+                indexes.add(index);
+                read.add(wire.bytes().toString());
+            };
+            assertEquals(0, tailer.readBatch(10, handler));
+
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 50; i++)
+                appender.writeText("msg-" + i);
+            long firstIndex = queue.firstIndex();
+
+            assertEquals(20, tailer.readBatch(20, handler));
+            assertEquals(firstIndex + 20, tailer.index());
+            assertEquals(30, tailer.readBatch(1000, handler));
+            assertEquals(0, tailer.readBatch(1000, handler));
+
+            // a tailer moved to an index starts its batch from there.
+            ExcerptTailer tailer2 = queue.createTailer();
+            tailer2.moveToIndex(firstIndex + 45);
+            List<String> read2 = new ArrayList<>();
+            assertEquals(5, tailer2.readBatch(1000, (index, wire) -> read2.add(wire.bytes().toString())));
+            assertEquals("msg-45", read2.get(0));
+
+            assertEquals(50, read.size());
+            for (int i = 0; i < 50; i++) {
+                assertEquals("msg-" + i, read.get(i));
+                assertEquals(firstIndex + i, (long) indexes.get(i));
+            }
+        }
+    }
+}
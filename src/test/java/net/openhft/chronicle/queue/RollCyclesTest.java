@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.Utils;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.Duration;
+
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.*;
+
+public class RollCyclesTest {
+
+    @Test
+    public void customCycleIsSizedForTheExpectedMessages() {
+        RollCycle rollCycle = RollCycles.custom(Duration.ofSeconds(30), 1_000_000);
+        assertEquals(30_000, rollCycle.length());
+        assertEquals("yyyyMMdd-HHmmss", rollCycle.format());
+        long capacity = (long) rollCycle.defaultIndexCount() * rollCycle.defaultIndexCount() * rollCycle.defaultIndexSpacing();
+        assertTrue(capacity >= 4_000_000);
+
+        long index = rollCycle.toIndex(12345, 3_999_999);
+        assertEquals(12345, rollCycle.toCycle(index));
+        assertEquals(3_999_999, rollCycle.toSequenceNumber(index));
+
+        assertEquals("yyyyMMdd-HH", RollCycles.custom(Duration.ofHours(2), 1000).format());
+        assertEquals("yyyyMMdd-HHmm", RollCycles.custom(Duration.ofMinutes(15), 1000).format());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void customCycleMustBeWholeSeconds() {
+        RollCycles.custom(Duration.ofMillis(1500), 1000);
+    }
+
+    @Test
+    public void writeAndReadAcrossFiveSecondCycles() {
+        checkWriteAndRead(RollCycles.FIVE_SECONDLY);
+        checkWriteAndRead(RollCycles.custom(Duration.ofSeconds(20), 10_000));
+    }
+
+    private void checkWriteAndRead(RollCycle rollCycle) {
+        final File dir = Utils.tempDir("writeAndReadAcross" + rollCycle.length());
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(rollCycle)
+                .timeProvider(timeProvider)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 3; i++) {
+                timeProvider.currentTimeMillis(1_000_000L + i * rollCycle.length());
+                appender.writeText("msg-" + i);
+                assertEquals(queue.cycle(), rollCycle.toCycle(appender.lastIndexAppended()));
+            }
+            assertEquals(queue.firstCycle() + 2, queue.lastCycle());
+
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 3; i++)
+                assertEquals("msg-" + i, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+}
@@ -76,6 +76,50 @@ public class WriteBytesTest {
         }
     }
 
+    @Test
+    public void testWriteBytesBatch() {
+        File dir = Utils.tempDir("WriteBytesTestBatch");
+        try (ChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST4_DAILY)
+                .build()) {
+
+            ExcerptAppender appender = queue.acquireAppender();
+            Bytes[] batch = new Bytes[50];
+            for (int i = 0; i < batch.length; i++)
+                batch[i] = Bytes.elasticByteBuffer().append8bit("msg-" + i);
+            appender.writeBytes(batch);
+            appender.writeBytes(batch);
+            for (Bytes bytes : batch)
+                bytes.release();
+
+            ExcerptTailer tailer = queue.createTailer();
+            long firstIndex = -1;
+            for (int i = 0; i < 2 * batch.length; i++) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    assertEquals(true, dc.isPresent());
+                    if (firstIndex == -1)
+                        firstIndex = dc.index();
+                    assertEquals(firstIndex + i, dc.index());
+                    assertEquals("msg-" + (i % batch.length), dc.wire().bytes().toString());
+                }
+            }
+            assertEquals(firstIndex + 2 * batch.length - 1, appender.lastIndexAppended());
+
+            ExcerptTailer random = queue.createTailer();
+            assertEquals(true, random.moveToIndex(firstIndex + 73));
+            try (DocumentContext dc = random.readingDocument()) {
+                assertEquals("msg-23", dc.wire().bytes().toString());
+            }
+        } finally {
+            try {
+                IOTools.deleteDirWithFiles(dir, 2);
+            } catch (IORuntimeException e) {
+                // ignored
+            }
+        }
+    }
+
     @Test
     public void testWriteBytesAndDump() {
         File dir = Utils.tempDir("WriteBytesTestAndDump");
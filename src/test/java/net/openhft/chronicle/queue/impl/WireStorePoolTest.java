@@ -0,0 +1,109 @@
+package net.openhft.chronicle.queue.impl;
+
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.Utils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+public class WireStorePoolTest {
+
+    @Test(timeout = 30000)
+    public void concurrentAcquireAndRelease() throws Exception {
+        final AtomicInteger acquired = new AtomicInteger();
+        final AtomicInteger released = new AtomicInteger();
+        final int cycles = 4;
+
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("concurrentAcquireAndRelease"))
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .storeFileListener(new StoreFileListener() {
+                    @Override
+                    public void onAcquired(int cycle, java.io.File file) {
+                        acquired.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onReleased(int cycle, java.io.File file) {
+                        released.incrementAndGet();
+                    }
+                })
+                .build()) {
+
+            ExecutorService es = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    futures.add(es.submit(() -> {
+                        for (int i = 0; i < 2000; i++) {
+                            WireStore store = queue.storeForCycle(i % cycles, queue.epoch(), true);
+                            assertNotNull(store);
+                            queue.release(store);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+            } finally {
+                es.shutdown();
+            }
+
+            // every store acquired was released, and the pool gives out a fresh reservation.
+            assertEquals(acquired.get(), released.get());
+            for (int cycle = 0; cycle < cycles; cycle++) {
+                WireStore store = queue.storeForCycle(cycle, queue.epoch(), false);
+                assertNotNull(store);
+                assertEquals(1, store.refCount());
+                queue.release(store);
+            }
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void releasedStoresStayMappedUntilEvicted() throws Exception {
+        final AtomicInteger released = new AtomicInteger();
+
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("releasedStoresStayMappedUntilEvicted"))
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .maxIdleStores(1)
+                .storeFileListener(new StoreFileListener() {
+                    @Override
+                    public void onReleased(int cycle, java.io.File file) {
+                        released.incrementAndGet();
+                    }
+                })
+                .build()) {
+
+            WireStore store0 = queue.storeForCycle(0, queue.epoch(), true);
+            queue.release(store0);
+            // the pool keeps the only reference.
+            assertEquals(1, store0.refCount());
+            assertEquals(0, released.get());
+
+            WireStore again = queue.storeForCycle(0, queue.epoch(), false);
+            assertSame(store0, again);
+            queue.release(again);
+
+            // two more idle stores are one more than the maximum, so the eldest is unmapped.
+            for (int cycle = 1; cycle <= 2; cycle++)
+                queue.release(queue.storeForCycle(cycle, queue.epoch(), true));
+
+            while (released.get() < 2)
+                Thread.sleep(10);
+            assertEquals(0, store0.refCount());
+        }
+        assertEquals(3, released.get());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AwaitDataTest {
+
+    @Test
+    public void timesOutWithoutData() {
+        final File dir = Utils.tempDir("timesOutWithoutData");
+        try (SingleChronicleQueue queue = binary(dir).testBlockSize().rollCycle(TEST_DAILY).build()) {
+            ExcerptTailer tailer = queue.createTailer();
+            assertFalse(tailer.awaitData(20, TimeUnit.MILLISECONDS));
+
+            queue.acquireAppender().writeText("hello");
+            assertTrue(tailer.awaitData(20, TimeUnit.MILLISECONDS));
+            assertEquals("hello", tailer.readText());
+
+            assertNull(tailer.readText());
+            long start = System.nanoTime();
+            assertFalse(tailer.awaitData(20, TimeUnit.MILLISECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void wokenByAnAppender() throws ExecutionException, InterruptedException {
+        final File dir = Utils.tempDir("wokenByAnAppender");
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        try (SingleChronicleQueue queue = binary(dir).testBlockSize().rollCycle(TEST_DAILY).build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("first");
+
+            Future<String> read = service.submit(() -> {
+                ExcerptTailer tailer = queue.createTailer();
+                assertEquals("first", tailer.readText());
+                assertNull(tailer.readText());
+                // parked long before the appender writes, and woken well before the timeout.
+                assertTrue(tailer.awaitData(5, TimeUnit.SECONDS));
+                return tailer.readText();
+            });
+
+            Jvm.pause(200);
+            long start = System.nanoTime();
+            appender.writeText("second");
+            assertEquals("second", read.get());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            service.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.RollCycles.TEST_SECONDLY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BackgroundIndexerTest {
+
+    @Test(timeout = 10000)
+    public void indexIsWrittenInTheBackground() {
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("indexIsWrittenInTheBackground"))
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .backgroundIndexing(true)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            assertTrue(appender.lazyIndexing());
+
+            for (int i = 0; i < 1000; i++)
+                appender.writeText("msg-" + i);
+            long lastIndex = appender.lastIndexAppended();
+            int cycle = queue.rollCycle().toCycle(lastIndex);
+            long lastSequence = queue.rollCycle().toSequenceNumber(lastIndex);
+
+            SingleChronicleQueueStore store = (SingleChronicleQueueStore) queue.storeForCycle(cycle, queue.epoch(), false);
+            try {
+                // the last excerpt which needs an entry has been indexed.
+                while (store.indexing.nextEntryToBeIndexed() <= lastSequence - queue.indexSpacing())
+                    Jvm.pause(10);
+            } finally {
+                queue.release(store);
+            }
+
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i : new int[]{999, 0, 512, 64, 700}) {
+                assertTrue(tailer.moveToIndex(queue.rollCycle().toIndex(cycle, i)));
+                assertEquals("msg-" + i, tailer.readText());
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void movesOnFromAnEmptyCycle() {
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        timeProvider.currentTimeMillis(1000);
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("movesOnFromAnEmptyCycle"))
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .backgroundIndexing(true)
+                .build()) {
+            // a cycle file with no excerpts, as created by the next cycle preparer.
+            queue.release(queue.storeForCycle(1, queue.epoch(), true));
+
+            timeProvider.currentTimeMillis(2000);
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 1000; i++)
+                appender.writeText("msg-" + i);
+            long lastIndex = appender.lastIndexAppended();
+            assertEquals(2, queue.rollCycle().toCycle(lastIndex));
+            long lastSequence = queue.rollCycle().toSequenceNumber(lastIndex);
+
+            SingleChronicleQueueStore store = (SingleChronicleQueueStore) queue.storeForCycle(2, queue.epoch(), false);
+            try {
+                while (store.indexing.nextEntryToBeIndexed() <= lastSequence - queue.indexSpacing())
+                    Jvm.pause(10);
+            } finally {
+                queue.release(store);
+            }
+
+            ExcerptTailer tailer = queue.createTailer();
+            assertTrue(tailer.moveToIndex(queue.rollCycle().toIndex(2, 700)));
+            assertEquals("msg-700", tailer.readText());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ContentionStats;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ContentionPauserTest {
+
+    @Test
+    public void bucketsArePowersOfTwo() {
+        assertEquals(0, ContentionMonitor.bucket(0));
+        assertEquals(0, ContentionMonitor.bucket(1023));
+        assertEquals(1, ContentionMonitor.bucket(1024));
+        assertEquals(1, ContentionMonitor.bucket(2047));
+        assertEquals(2, ContentionMonitor.bucket(2048));
+        assertEquals(ContentionStats.WAIT_HISTOGRAM_BUCKETS - 1, ContentionMonitor.bucket(Long.MAX_VALUE));
+        for (int i = 0; i < ContentionStats.WAIT_HISTOGRAM_BUCKETS - 1; i++)
+            assertEquals(i + 1, ContentionMonitor.bucket(ContentionStats.bucketUpperNanos(i)));
+    }
+
+    @Test
+    public void recordsAWaitFromTheFirstPauseToTheReset() throws TimeoutException {
+        ContentionMonitor monitor = new ContentionMonitor(stats -> {
+        });
+        ContentionPauser pauser = new ContentionPauser(monitor);
+
+        // not waiting, so nothing to record.
+        pauser.reset();
+        assertEquals(0, monitor.getAndClearContentionCount());
+
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < 2_000_000)
+            pauser.pause(1, TimeUnit.SECONDS);
+        assertTrue(pauser.isWaiting());
+        pauser.reset();
+        assertFalse(pauser.isWaiting());
+
+        assertEquals(1, monitor.getAndClearContentionCount());
+        long max = monitor.getAndClearMaxWaitNanos();
+        assertTrue(max >= 2_000_000);
+        assertEquals(max, monitor.getAndClearTotalWaitNanos());
+        long[] histogram = monitor.getAndClearWaitHistogram();
+        assertEquals(1, histogram[ContentionMonitor.bucket(max)]);
+        assertEquals(1, pauser.countPaused());
+        assertTrue(pauser.timePaused() >= 2);
+
+        // cleared
+        assertEquals(0, monitor.getAndClearContentionCount());
+        assertEquals(0, monitor.getAndClearWaitHistogram()[ContentionMonitor.bucket(max)]);
+    }
+
+    @Test
+    public void typicalWaitFollowsTheWaits() {
+        ContentionMonitor monitor = new ContentionMonitor(stats -> {
+        });
+        long initial = monitor.typicalWaitNanos();
+        for (int i = 0; i < 100; i++)
+            monitor.onWait(100_000);
+        assertTrue(monitor.typicalWaitNanos() > initial);
+        assertTrue(monitor.typicalWaitNanos() <= 100_000);
+        for (int i = 0; i < 100; i++)
+            monitor.onWait(0);
+        assertTrue(monitor.typicalWaitNanos() < 1_000);
+    }
+
+    @Test(timeout = 5000)
+    public void timesOut() {
+        ContentionMonitor monitor = new ContentionMonitor(stats -> {
+        });
+        ContentionPauser pauser = new ContentionPauser(monitor);
+        try {
+            for (; ; )
+                pauser.pause(10, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException expected) {
+            // expected
+        }
+        // the wait is recorded, and the next pause starts another.
+        assertFalse(pauser.isWaiting());
+        assertEquals(1, monitor.getAndClearContentionCount());
+    }
+
+    @Test
+    public void queueUsesItWhenEnabled() {
+        final File dir = Utils.tempDir("contentionAwarePauser");
+        try (SingleChronicleQueue queue = binary(dir).testBlockSize().rollCycle(TEST_DAILY).build()) {
+            assertNull(queue.contentionMonitor());
+        }
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .contentionAwarePauser(true)
+                .build()) {
+            assertNotNull(queue.contentionMonitor());
+            assertTrue(queue.pauserSupplier.get() instanceof ContentionPauser);
+            queue.acquireAppender().writeText("hello");
+            assertEquals("hello", queue.createTailer().readText());
+        }
+    }
+}
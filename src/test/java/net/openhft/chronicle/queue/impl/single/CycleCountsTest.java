@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycle;
+import org.junit.Test;
+
+import java.io.File;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_SECONDLY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+public class CycleCountsTest {
+
+    @Test
+    public void countsAreRecordedWhenACycleRolls() throws InterruptedException {
+        final File dir = Utils.tempDir("countsAreRecordedWhenACycleRolls");
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        final int[] messagesPerCycle = {3, 5, 2};
+
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .recordCycleCounts(true)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int c = 0; c < messagesPerCycle.length; c++) {
+                timeProvider.currentTimeMillis((c + 1) * 1000);
+                for (int i = 0; i < messagesPerCycle[c]; i++)
+                    appender.writeText("msg-" + c + "-" + i);
+            }
+            // recorded from the event loop.
+            awaitCount(dir, 1, 3);
+            awaitCount(dir, 2, 5);
+        }
+
+        try (CycleCounts counts = CycleCounts.of(dir, false, true)) {
+            assertNotNull(counts);
+            assertEquals(3, counts.count(1));
+            assertEquals(5, counts.count(2));
+            // the last cycle hasn't rolled.
+            assertEquals(-1, counts.count(3));
+        }
+
+        // a queue which doesn't record them still uses the counts recorded.
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build()) {
+            RollCycle rollCycle = queue.rollCycle();
+            assertEquals(3, queue.exceptsPerCycle(1));
+            assertEquals(5, queue.exceptsPerCycle(2));
+            assertEquals(2, queue.exceptsPerCycle(3));
+            assertEquals(3 + 5 + 1, queue.countExcerpts(rollCycle.toIndex(1, 0), rollCycle.toIndex(3, 1)));
+        }
+    }
+
+    private static void awaitCount(File dir, int cycle, long count) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            try (CycleCounts counts = CycleCounts.of(dir, false, true)) {
+                if (counts != null && counts.count(cycle) == count)
+                    return;
+            }
+            Thread.sleep(50);
+        }
+        fail("The count of cycle " + cycle + " wasn't recorded");
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.function.BooleanSupplier;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_SECONDLY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DirectoryListingTest {
+
+    private static void waitFor(String message, BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(message, System.currentTimeMillis() < end);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void watchedDirectorySeesCyclesCreatedAndDeleted() throws Exception {
+        final File dir = Utils.tempDir("watchedDirectorySeesCyclesCreatedAndDeleted");
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        timeProvider.currentTimeMillis(1000);
+
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .watchDirectory(true)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("one");
+            timeProvider.currentTimeMillis(2000);
+            appender.writeText("two");
+
+            assertEquals(1, queue.firstCycle());
+            assertEquals(2, queue.lastCycle());
+
+            // another queue on the same directory, which isn't watching it, writes a later cycle.
+            final SetTimeProvider otherTime = new SetTimeProvider();
+            otherTime.currentTimeMillis(4000);
+            try (SingleChronicleQueue other = binary(dir)
+                    .testBlockSize()
+                    .rollCycle(TEST_SECONDLY)
+                    .timeProvider(otherTime)
+                    .build()) {
+                other.acquireAppender().writeText("four");
+            }
+            waitFor("cycle 4 not seen", () -> queue.lastCycle() == 4);
+
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals("one", tailer.readText());
+            assertEquals("two", tailer.readText());
+            assertEquals("four", tailer.readText());
+
+            File first = queue.fileForCycle(1);
+            assertTrue(first.delete());
+            waitFor("cycle 1 still listed", () -> queue.firstCycle() == 2);
+            assertEquals(2, queue.cycleAtOrAfter(0));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.RollCycles.TEST_SECONDLY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FilePreallocatorTest {
+
+    @Test
+    public void createsTheFileAllocatedOnlyIfAbsent() throws IOException {
+        final File dir = Utils.tempDir("createsTheFileAllocatedOnlyIfAbsent");
+        assertTrue(dir.mkdirs());
+        final File file = new File(dir, "19700101" + SingleChronicleQueue.SUFFIX);
+
+        assertTrue(FilePreallocator.createAllocated(file, 3 << 20));
+        assertEquals(3 << 20, file.length());
+
+        // another process got there first, its file is kept.
+        final File other = new File(dir, "19700102" + SingleChronicleQueue.SUFFIX);
+        final byte[] theirs = {1, 2, 3};
+        Files.write(other.toPath(), theirs);
+        assertFalse(FilePreallocator.createAllocated(other, 1 << 20));
+        assertArrayEquals(theirs, Files.readAllBytes(other.toPath()));
+
+        // the temporary files are removed.
+        assertEquals(2, dir.list().length);
+    }
+
+    @Test(timeout = 10000)
+    public void preparedCycleFilesArePreallocated() {
+        final File dir = Utils.tempDir("preparedCycleFilesArePreallocated");
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        timeProvider.currentTimeMillis(1_000);
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .prepareNextCycleMS(400)
+                .preallocateBytes(4 << 20)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("hello");
+            // the appender created the first cycle, which isn't held up allocating it.
+            assertTrue(queue.fileForCycle(1).length() < 4 << 20);
+
+            // the next cycle is prepared on the event loop shortly before the roll.
+            timeProvider.currentTimeMillis(1_700);
+            NextCyclePreparer preparer = queue.nextCyclePreparer();
+            assertNotNull(preparer);
+            while (!preparer.isReady(2))
+                Jvm.pause(10);
+
+            timeProvider.currentTimeMillis(2_000);
+            appender.writeText("world");
+            assertEquals(2, queue.rollCycle().toCycle(appender.lastIndexAppended()));
+            // the prepared file was linked into place.
+            assertTrue(queue.fileForCycle(2).length() >= 4 << 20);
+
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals("hello", tailer.readText());
+            assertEquals("world", tailer.readText());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void allocatesAheadOfTheWritePosition() {
+        final File dir = Utils.tempDir("allocatesAheadOfTheWritePosition");
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .preallocateAheadBytes(4 << 20)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 100; i++)
+                appender.writeText("msg-" + i);
+
+            File file = queue.fileForCycle(queue.cycle());
+            while (file.length() < 4 << 20)
+                Jvm.pause(10);
+
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 100; i++)
+                assertEquals("msg-" + i, tailer.readText());
+            appender.writeText("after");
+            assertEquals("after", tailer.readText());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.impl.WireStore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IndexCacheTest {
+
+    @Test
+    public void arraysAreKeyedByCycleAndAddress() {
+        IndexCache cache = new IndexCache(16);
+        long[] values = {1, 2, 3};
+        cache.put(1, 4096, values);
+        // as a store released and acquired again would look it up.
+        assertSame(values, cache.get(1, 4096));
+        assertNull(cache.get(2, 4096));
+        assertNull(cache.get(1, 8192));
+
+        cache.forget(1);
+        assertNull(cache.get(1, 4096));
+    }
+
+    @Test(timeout = 60000)
+    public void tailersShareTheFullIndexArrays() throws Exception {
+        final int messages = 500;
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("tailersShareTheFullIndexArrays"))
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                // each secondary index array covers 32 excerpts.
+                .indexCount(8)
+                .indexSpacing(4)
+                .indexCacheSize(4)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < messages; i++)
+                appender.writeText("msg-" + i);
+            final long first = queue.firstIndex();
+
+            WireStore store = queue.storeForCycle(queue.cycle(), queue.epoch(), false);
+            assertNotNull(store);
+            try {
+                assertNotNull(((SingleChronicleQueueStore) store).indexing.indexCache);
+            } finally {
+                queue.release(store);
+            }
+
+            ExecutorService es = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    final int seed = t;
+                    futures.add(es.submit(() -> {
+                        Random random = new Random(seed);
+                        ExcerptTailer tailer = queue.createTailer();
+                        for (int i = 0; i < 2000; i++) {
+                            int n = random.nextInt(messages);
+                            assertTrue(tailer.moveToIndex(first + n));
+                            assertEquals("msg-" + n, tailer.readText());
+                        }
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+            } finally {
+                es.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+
+public class LastIndexAppendedTest {
+
+    @Test
+    public void lastIndexAppendedWithLazyIndexing() {
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("lastIndexAppendedWithLazyIndexing"))
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .indexSpacing(8)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender().lazyIndexing(true);
+            List<Long> appended = new ArrayList<>();
+            List<Long> fromContext = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                try (DocumentContext dc = appender.writingDocument()) {
+                    dc.wire().write("msg").int32(i);
+                    fromContext.add(dc.index());
+                }
+                appended.add(appender.lastIndexAppended());
+                // meta data between excerpts doesn't have an index.
+                if (i % 5 == 0)
+                    try (DocumentContext dc = appender.writingDocument(true)) {
+                        dc.wire().write("meta").int32(i);
+                    }
+            }
+
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 50; i++) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    assertEquals(i, dc.wire().read("msg").int32());
+                    assertEquals(dc.index(), (long) appended.get(i));
+                    assertEquals(dc.index(), (long) fromContext.get(i));
+                }
+            }
+        }
+    }
+}
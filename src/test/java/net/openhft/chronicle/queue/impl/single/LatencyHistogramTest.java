@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValue() {
+        int last = -1;
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 1 << 20, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(bucket >= last);
+            assertTrue(bucket < LatencyHistogram.BUCKETS);
+            assertTrue(value <= LatencyHistogram.highestValue(bucket));
+            // within 1/8th
+            assertTrue(LatencyHistogram.highestValue(bucket) - value <= value / 8);
+            last = bucket;
+        }
+        for (int i = 0; i + 1 < LatencyHistogram.BUCKETS; i++)
+            assertEquals(i + 1, LatencyHistogram.bucket(LatencyHistogram.highestValue(i) + 1));
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAt(50));
+        for (int i = 1; i <= 1000; i++)
+            histogram.record(i * 1000L);
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertWithin(500_000, histogram.valueAt(50));
+        assertWithin(990_000, histogram.valueAt(99));
+        assertEquals(1_000_000, histogram.valueAt(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " vs " + actual, actual >= expected && actual <= expected + expected / 8);
+    }
+}
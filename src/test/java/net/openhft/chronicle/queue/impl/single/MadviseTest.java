@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.MadviseHint;
+import net.openhft.chronicle.queue.impl.WireStore;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MadviseTest {
+
+    @Test
+    public void tailersReadTheSameWithHints() {
+        final File dir = Utils.tempDir("tailersReadTheSameWithHints");
+        final int count = 20_000;
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .madviseHints(MadviseHint.values())
+                .backgroundPretouch(true)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < count; i++)
+                appender.writeText("message-" + i);
+
+            // the tailer is many blocks behind, so it is catching up and gives back what it read.
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < count; i++)
+                assertEquals("message-" + i, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test
+    public void advisesTheMappedChunk() {
+        Assume.assumeTrue(Madvise.isAvailable());
+        final File dir = Utils.tempDir("advisesTheMappedChunk");
+        try (SingleChronicleQueue queue = binary(dir).testBlockSize().rollCycle(TEST_DAILY).build()) {
+            queue.acquireAppender().writeText("hello");
+            WireStore store = queue.storeForCycle(queue.cycle(), queue.epoch(), false);
+            assertNotNull(store);
+            MappedBytes bytes = (MappedBytes) store.bytes();
+            try {
+                long chunkSize = bytes.mappedFile().chunkSize();
+                assertTrue(Madvise.advise(bytes, 0, chunkSize, Madvise.MADV_SEQUENTIAL));
+                assertTrue(Madvise.advise(bytes, 0, chunkSize / 2, Madvise.MADV_COLD));
+                assertEquals("hello", queue.createTailer().readText());
+            } finally {
+                bytes.release();
+                queue.release(store);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MultiWriterBytesRingBufferTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void wrapsAroundInOrder() {
+        MultiWriterBytesRingBuffer ringBuffer = new MultiWriterBytesRingBuffer(4 << 10);
+        Bytes<?> bytes = Bytes.elasticByteBuffer();
+        List<String> read = new ArrayList<>();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                bytes.clear();
+                bytes.append8bit("message-" + i);
+                assertTrue(ringBuffer.offer(bytes, 0));
+                assertEquals(1, ringBuffer.drain((store, offset, length, flags) ->
+                        read.add(readText(store, offset, length)), 10));
+            }
+            assertTrue(ringBuffer.isEmpty());
+            assertEquals(1000, read.size());
+            for (int i = 0; i < 1000; i++)
+                assertEquals("message-" + i, read.get(i));
+            assertEquals(1000, ringBuffer.getAndClearWriteCount());
+        } finally {
+            bytes.release();
+            ringBuffer.close();
+        }
+    }
+
+    @Test
+    public void fullBufferRejectsWrites() {
+        MultiWriterBytesRingBuffer ringBuffer = new MultiWriterBytesRingBuffer(4 << 10);
+        Bytes<?> bytes = Bytes.elasticByteBuffer();
+        try {
+            bytes.write(new byte[1000]);
+            int written = 0;
+            while (ringBuffer.offer(bytes, MultiWriterBytesRingBuffer.META_DATA))
+                written++;
+            assertEquals(4, written);
+            assertEquals(1, ringBuffer.getAndClearMissedWriteCount());
+            int[] flags = {0};
+            assertEquals(4, ringBuffer.drain((store, offset, length, f) -> flags[0] |= f, 10));
+            assertEquals(MultiWriterBytesRingBuffer.META_DATA, flags[0]);
+        } finally {
+            bytes.release();
+            ringBuffer.close();
+        }
+    }
+
+    @Test
+    public void bufferedAppenderWritesInOrder() {
+        File dir = getTmpDir();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .buffered(true)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 200; i++) {
+                try (DocumentContext dc = appender.writingDocument()) {
+                    dc.wire().write("i").int32(i);
+                }
+            }
+        }
+
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .build()) {
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 200; i++) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    assertTrue(dc.isPresent());
+                    assertEquals(i, dc.wire().read("i").int32());
+                }
+            }
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertFalse(dc.isPresent());
+            }
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    private static String readText(BytesStore store, long offset, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            sb.append((char) store.readByte(offset + i));
+        return sb.toString();
+    }
+}
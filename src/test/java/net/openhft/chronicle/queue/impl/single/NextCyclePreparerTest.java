@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_SECONDLY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class NextCyclePreparerTest {
+
+    private static int countFiles(File path) {
+        String[] list = path.list((dir, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+        return list == null ? 0 : list.length;
+    }
+
+    @Test(timeout = 10000)
+    public void nextCycleIsCreatedBeforeTheRoll() {
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        timeProvider.currentTimeMillis(1000);
+        final File path = Utils.tempDir("nextCycleIsCreatedBeforeTheRoll");
+
+        try (SingleChronicleQueue queue = binary(path)
+                .testBlockSize()
+                .timeProvider(timeProvider)
+                .rollCycle(TEST_SECONDLY)
+                .prepareNextCycleMS(300)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("hello");
+            assertEquals(1, countFiles(path));
+
+            // within the lead time of the roll.
+            timeProvider.currentTimeMillis(1800);
+            NextCyclePreparer preparer = queue.nextCyclePreparer();
+            assertNotNull(preparer);
+            while (!preparer.isReady(2))
+                Jvm.pause(10);
+
+            // the prepared file isn't in place until the appender rolls to it.
+            assertEquals(1, countFiles(path));
+            assertFalse(queue.fileForCycle(2).exists());
+            assertEquals(1, queue.lastCycle());
+            // nor for another queue on the same directory, as in another process.
+            try (SingleChronicleQueue other = binary(path)
+                    .testBlockSize()
+                    .timeProvider(timeProvider)
+                    .rollCycle(TEST_SECONDLY)
+                    .build()) {
+                assertEquals(1, other.lastCycle());
+            }
+
+            timeProvider.currentTimeMillis(2000);
+            appender.writeText("world");
+            assertEquals(2, queue.rollCycle().toCycle(appender.lastIndexAppended()));
+            assertEquals(2, countFiles(path));
+            assertEquals(2, queue.lastCycle());
+
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals("hello", tailer.readText());
+            assertEquals("world", tailer.readText());
+        }
+    }
+}
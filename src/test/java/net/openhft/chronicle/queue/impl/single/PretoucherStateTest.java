@@ -23,6 +23,7 @@ import java.util.function.BooleanSupplier;
 import java.util.function.LongSupplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by peter on 28/11/16.
@@ -120,6 +121,24 @@ public class PretoucherStateTest {
                 "pos: 27648, i:20\n", record.toString());
     }
 
+    @Test
+    public void minHeadRoomFallsBackOnceAhead() {
+        long[] pos = {0};
+        boolean[] ahead = {false};
+        PretoucherState ps = new DummyPretoucherState(() -> pos[0] += 64 << 10, 16 << 10, new StringBuilder(), () -> ahead[0]);
+        for (int i = 0; i < 4; i++)
+            ps.pretouch(null);
+        int raised = ps.minHeadRoom();
+        assertTrue(raised > 16 << 10);
+
+        ahead[0] = true;
+        ps.pretouch(null);
+        assertTrue(ps.minHeadRoom() < raised);
+        for (int i = 0; i < 1000; i++)
+            ps.pretouch(null);
+        assertEquals(16 << 10, ps.minHeadRoom());
+    }
+
     class DummyPretoucherState extends PretoucherState {
         private final BooleanSupplier touched;
         StringBuilder record;
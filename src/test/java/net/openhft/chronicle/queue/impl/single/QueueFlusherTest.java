@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.queue.DurabilityPolicy;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import org.junit.Test;
+
+import java.io.File;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueueFlusherTest {
+
+    @Test
+    public void noFlusherByDefault() {
+        final File dir = Utils.tempDir("noFlusherByDefault");
+        try (SingleChronicleQueue queue = binary(dir).testBlockSize().rollCycle(TEST_DAILY).build()) {
+            assertNull(queue.flusher());
+        }
+    }
+
+    @Test
+    public void syncOnCloseSyncsBeforeTheAppendReturns() {
+        final File dir = Utils.tempDir("syncOnCloseSyncsBeforeTheAppendReturns");
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .durabilityPolicy(DurabilityPolicy.SYNC_ON_CLOSE)
+                .build()) {
+            QueueFlusher flusher = queue.flusher();
+            assertNotNull(flusher);
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 10; i++)
+                appender.writeText("msg-" + i);
+
+            // one thread appending has nothing to share its syncs with.
+            assertEquals(10, flusher.getAndClearFlushCount());
+            assertEquals(10, flusher.getAndClearFlushedAppendCount());
+            assertTrue(flusher.getAndClearMaxFlushNanos() > 0);
+        }
+    }
+
+    @Test
+    public void syncOnCloseSyncsAnExcerptWrittenAtAnIndex() {
+        final File dir = Utils.tempDir("syncOnCloseSyncsAnExcerptWrittenAtAnIndex");
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .durabilityPolicy(DurabilityPolicy.SYNC_ON_CLOSE)
+                .build()) {
+            QueueFlusher flusher = queue.flusher();
+            assertNotNull(flusher);
+            ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("first");
+            assertEquals(1, flusher.getAndClearFlushCount());
+            assertEquals(1, flusher.getAndClearFlushedAppendCount());
+
+            // as a replica copies an excerpt.
+            appender.writeBytes(appender.lastIndexAppended() + 1, Bytes.from("copied"));
+            assertEquals(1, flusher.getAndClearFlushCount());
+            assertEquals(1, flusher.getAndClearFlushedAppendCount());
+        }
+    }
+
+    @Test
+    public void syncOnCloseSharesSyncsBetweenAppenders() throws InterruptedException {
+        final File dir = Utils.tempDir("syncOnCloseSharesSyncsBetweenAppenders");
+        final int threads = 4, perThread = 200;
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .durabilityPolicy(DurabilityPolicy.SYNC_ON_CLOSE)
+                .build()) {
+            QueueFlusher flusher = queue.flusher();
+            assertNotNull(flusher);
+            Thread[] writers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                writers[t] = new Thread(() -> {
+                    ExcerptAppender appender = queue.acquireAppender();
+                    for (int i = 0; i < perThread; i++)
+                        appender.writeText("msg-" + i);
+                });
+                writers[t].start();
+            }
+            for (Thread writer : writers)
+                writer.join();
+
+            long flushes = flusher.getAndClearFlushCount();
+            assertEquals(threads * perThread, flusher.getAndClearFlushedAppendCount());
+            assertTrue("flushes: " + flushes, flushes > 0 && flushes <= threads * perThread);
+        }
+    }
+
+    @Test
+    public void asyncSyncsEveryNMessages() throws InterruptedException {
+        final File dir = Utils.tempDir("asyncSyncsEveryNMessages");
+        long flushed = 0;
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .durabilityPolicy(DurabilityPolicy.asyncEvery(5, 0))
+                .build()) {
+            QueueFlusher flusher = queue.flusher();
+            assertNotNull(flusher);
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 12; i++)
+                appender.writeText("msg-" + i);
+
+            long end = System.currentTimeMillis() + 5_000;
+            // a sync is made whenever 5 or more are waiting, so at most 4 are left.
+            while (flushed < 8 && System.currentTimeMillis() < end) {
+                flushed += flusher.getAndClearFlushedAppendCount();
+                Thread.sleep(1);
+            }
+            assertTrue("flushed: " + flushed, flushed >= 8);
+
+            // the rest are synced on close.
+            queue.close();
+            flushed += flusher.getAndClearFlushedAppendCount();
+            assertEquals(12, flushed);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void asyncNeedsALimit() {
+        DurabilityPolicy.asyncEvery(0, 0);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.QueueMetricsMXBean;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueueMetricsTest {
+
+    @Test
+    public void noMetricsByDefault() {
+        final File dir = Utils.tempDir("noMetricsByDefault");
+        try (SingleChronicleQueue queue = binary(dir).testBlockSize().rollCycle(TEST_DAILY).build()) {
+            assertNull(queue.metrics());
+            queue.acquireAppender().writeText("hello");
+            assertEquals("hello", queue.createTailer("named").readText());
+        }
+    }
+
+    @Test
+    public void recordsAppendsAndReads() throws Exception {
+        final File dir = Utils.tempDir("recordsAppendsAndReads");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName queueName = new ObjectName(QueueMetrics.DOMAIN + ":type=Queue,name="
+                + ObjectName.quote(dir.getAbsolutePath()));
+        ObjectName tailerName = new ObjectName(QueueMetrics.DOMAIN + ":type=Tailer,queue="
+                + ObjectName.quote(dir.getAbsolutePath()) + ",name=" + ObjectName.quote("reader"));
+
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .metrics(true)
+                .build()) {
+            QueueMetricsMXBean metrics = queue.metrics();
+            assertNotNull(metrics);
+            assertTrue(server.isRegistered(queueName));
+
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 10; i++)
+                appender.writeText("msg-" + i);
+            try (DocumentContext dc = appender.writingDocument()) {
+                dc.wire().bytes().writeLong(10);
+            }
+            assertEquals(11, metrics.getAppendCount());
+            assertTrue(metrics.getAppendedBytes() >= 11 * 4 + 8);
+            assertEquals(11, metrics.getHeaderWaitCount());
+            assertTrue(metrics.getHeaderWaitMaxNanos() > 0);
+            assertTrue(metrics.getHeaderWaitMedianNanos() <= metrics.getHeaderWaitMaxNanos());
+            assertTrue(metrics.getStoreAcquireCount() > 0);
+            assertEquals(11L, server.getAttribute(queueName, "AppendCount"));
+
+            ExcerptTailer tailer = queue.createTailer("reader");
+            assertTrue(server.isRegistered(tailerName));
+            for (int i = 0; i < 10; i++)
+                assertEquals("msg-" + i, tailer.readText());
+            assertEquals(10L, server.getAttribute(tailerName, "ExcerptsRead"));
+            assertEquals(tailer.index() - 1, server.getAttribute(tailerName, "LastIndexRead"));
+
+            metrics.reset();
+            assertEquals(0, metrics.getHeaderWaitMaxNanos());
+            // counts are kept.
+            assertEquals(11, metrics.getHeaderWaitCount());
+        }
+        assertFalse(server.isRegistered(queueName));
+        assertFalse(server.isRegistered(tailerName));
+    }
+
+    @Test
+    public void reusesAndUnregistersTailerMetrics() throws Exception {
+        final File dir = Utils.tempDir("reusesAndUnregistersTailerMetrics");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String prefix = QueueMetrics.DOMAIN + ":type=Tailer,queue=" + ObjectName.quote(dir.getAbsolutePath());
+        ObjectName tailerName = new ObjectName(prefix + ",name=" + ObjectName.quote("reader"));
+        ObjectName duplicate = new ObjectName(prefix + ",name=" + ObjectName.quote("reader") + ",instance=1");
+
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .metrics(true)
+                .build()) {
+            queue.acquireAppender().writeText("hello");
+            readOnce(queue);
+            ExcerptTailer tailer = queue.createTailer("reader");
+            assertTrue(server.isRegistered(tailerName));
+            assertFalse(server.isRegistered(duplicate));
+            // the second tailer starts afresh.
+            assertEquals(-1L, server.getAttribute(tailerName, "LastIndexRead"));
+            assertEquals("hello", tailer.readText());
+
+            tailer = null;
+            for (int i = 0; i < 50 && server.isRegistered(tailerName); i++) {
+                System.gc();
+                Thread.sleep(100);
+            }
+            assertFalse(server.isRegistered(tailerName));
+        }
+    }
+
+    private static void readOnce(SingleChronicleQueue queue) {
+        assertEquals("hello", queue.createTailer("reader").readText());
+    }
+}
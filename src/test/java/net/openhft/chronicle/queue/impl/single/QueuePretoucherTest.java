@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import org.junit.Test;
+
+import java.io.File;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueuePretoucherTest {
+
+    @Test
+    public void noPretoucherByDefault() {
+        final File dir = Utils.tempDir("noPretoucherByDefault");
+        try (SingleChronicleQueue queue = binary(dir).testBlockSize().rollCycle(TEST_DAILY).build()) {
+            assertNull(queue.pretoucher());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void pretouchesAheadOfTheAppender() {
+        final File dir = Utils.tempDir("pretouchesAheadOfTheAppender");
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .backgroundPretouch(true)
+                .build()) {
+            QueuePretoucher pretoucher = queue.pretoucher();
+            assertNotNull(pretoucher);
+            ExcerptAppender appender = queue.acquireAppender();
+
+            long touched = 0;
+            for (int i = 0; touched == 0; i++) {
+                appender.writeText("msg-" + i);
+                touched += pretoucher.getAndClearPagesTouched();
+                Jvm.pause(1);
+            }
+            assertTrue(pretoucher.headRoom() > 0);
+            assertTrue(pretoucher.getAndClearTouchNanos() > 0);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.RollCycles.TEST_SECONDLY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RollOnSizeTest {
+
+    @Test
+    public void rollsWhenFullOrAtTheBoundary() {
+        final File dir = Utils.tempDir("rollsWhenFullOrAtTheBoundary");
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        final int[] expectedCycles = new int[32];
+        final long[] indexes = new long[32];
+
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .rollBoundary(TEST_DAILY)
+                .maxCycleExcerpts(10)
+                .timeProvider(timeProvider)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+
+            timeProvider.currentTimeMillis(1_000);
+            for (int i = 0; i < 25; i++) {
+                appender.writeText("msg-" + i);
+                indexes[i] = appender.lastIndexAppended();
+                // each cycle fills up before its second has passed.
+                expectedCycles[i] = 1 + i / 10;
+            }
+
+            // later the same day, the cycle which isn't full is appended to.
+            timeProvider.currentTimeMillis(50_000);
+            for (int i = 25; i < 30; i++) {
+                appender.writeText("msg-" + i);
+                indexes[i] = appender.lastIndexAppended();
+                expectedCycles[i] = 3;
+            }
+            appender.writeText("msg-30");
+            indexes[30] = appender.lastIndexAppended();
+            expectedCycles[30] = 50;
+
+            // the next day rolls, even though the cycle isn't full.
+            timeProvider.currentTimeMillis(86_400_000 + 5_000);
+            appender.writeText("msg-31");
+            indexes[31] = appender.lastIndexAppended();
+            expectedCycles[31] = 86_405;
+        }
+
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build()) {
+            RollCycle rollCycle = queue.rollCycle();
+            for (int i = 0; i < 32; i++) {
+                assertEquals("msg-" + i, expectedCycles[i], rollCycle.toCycle(indexes[i]));
+                if (i > 0)
+                    assertTrue(indexes[i] > indexes[i - 1]);
+            }
+
+            // the tailer hops over the cycles which were skipped.
+            ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 32; i++)
+                assertEquals("msg-" + i, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test
+    public void tailerDoesntEndACycleBeforeTheBoundary() {
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("tailerDoesntEndACycleBeforeTheBoundary"))
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .rollBoundary(TEST_DAILY)
+                .maxCycleBytes(1 << 20)
+                .timeProvider(timeProvider)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            ExcerptTailer tailer = queue.createTailer();
+            timeProvider.currentTimeMillis(1_000);
+            appender.writeText("msg-0");
+            assertEquals("msg-0", tailer.readText());
+
+            // the tailer reaches the end of the cycle long after its second has passed.
+            timeProvider.currentTimeMillis(50_000);
+            assertNull(tailer.readText());
+            appender.writeText("msg-1");
+            assertEquals(1, queue.rollCycle().toCycle(appender.lastIndexAppended()));
+            assertEquals("msg-1", tailer.readText());
+
+            // after the boundary the tailer ends the cycle, as the appender moves on.
+            timeProvider.currentTimeMillis(86_400_000 + 5_000);
+            assertNull(tailer.readText());
+            appender.writeText("msg-2");
+            assertEquals(86_405, queue.rollCycle().toCycle(appender.lastIndexAppended()));
+            assertEquals("msg-2", tailer.readText());
+        }
+    }
+
+    @Test
+    public void moveBeforeTimeInACycleStartedEarlier() {
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("moveBeforeTimeInACycleStartedEarlier"))
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .rollBoundary(TEST_DAILY)
+                .maxCycleBytes(1 << 20)
+                .indexSpacing(4)
+                .timeIndex(true)
+                .timeProvider(timeProvider)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 20; i++) {
+                timeProvider.currentTimeMillis(1_000 + i * 10);
+                appender.writeText("msg-" + i);
+            }
+            // written into the cycle for the first second, long after it has passed.
+            for (int i = 20; i < 40; i++) {
+                timeProvider.currentTimeMillis(50_000 + i * 10);
+                appender.writeText("msg-" + i);
+            }
+            assertEquals(1, queue.rollCycle().toCycle(appender.lastIndexAppended()));
+
+            ExcerptTailer tailer = queue.createTailer();
+            // the last indexed excerpt before msg-20 was written.
+            assertTrue(tailer.moveBeforeTime(TimeUnit.MILLISECONDS.toNanos(50_000)));
+            assertEquals("msg-16", tailer.readText());
+
+            assertTrue(tailer.moveBeforeTime(TimeUnit.MILLISECONDS.toNanos(50_300)));
+            assertEquals("msg-28", tailer.readText());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxCycleExcerptsWithBackgroundIndexing() {
+        binary(Utils.tempDir("maxCycleExcerptsWithBackgroundIndexing"))
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .maxCycleExcerpts(10)
+                .backgroundIndexing(true)
+                .build()
+                .close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void maxCycleExcerptsWithLazyIndexing() {
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("maxCycleExcerptsWithLazyIndexing"))
+                .testBlockSize()
+                .rollCycle(TEST_SECONDLY)
+                .maxCycleExcerpts(10)
+                .build()) {
+            queue.acquireAppender().lazyIndexing(true);
+        }
+    }
+}
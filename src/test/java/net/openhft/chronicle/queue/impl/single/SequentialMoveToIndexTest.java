@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SequentialMoveToIndexTest {
+
+    @Test
+    public void moveToIndexForwardBackwardAndPastTheEnd() {
+        final int messages = 100;
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("moveToIndexForwardBackwardAndPastTheEnd"))
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .indexSpacing(16)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < messages; i++) {
+                appender.writeText("msg-" + i);
+                // meta data doesn't count as an excerpt when scanning.
+                if (i % 7 == 0)
+                    try (DocumentContext dc = appender.writingDocument(true)) {
+                        dc.wire().write("meta").int32(i);
+                    }
+            }
+            final long first = queue.firstIndex();
+            ExcerptTailer tailer = queue.createTailer();
+
+            // each index is a short scan from the one before.
+            for (int i = 0; i < messages; i++) {
+                assertTrue(tailer.moveToIndex(first + i));
+                assertEquals("msg-" + i, tailer.readText());
+            }
+            for (int i = messages - 1; i >= 0; i -= 3) {
+                assertTrue(tailer.moveToIndex(first + i));
+                assertEquals("msg-" + i, tailer.readText());
+            }
+            for (int i = 1; i < messages; i += 20) {
+                assertTrue(tailer.moveToIndex(first + i));
+                assertEquals("msg-" + i, tailer.readText());
+            }
+            assertTrue(tailer.moveToIndex(first + messages - 2));
+            assertFalse(tailer.moveToIndex(first + messages + 1));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TailerLagTest {
+
+    @Test
+    public void lagOfTailer() {
+        final File dir = Utils.tempDir("lagOfTailer");
+        try (SingleChronicleQueue queue = binary(dir).testBlockSize().rollCycle(TEST_DAILY).build()) {
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals(0, tailer.lag());
+
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 10; i++)
+                appender.writeText("msg-" + i);
+            assertEquals(10, tailer.lag());
+            long bytes = tailer.lagBytes();
+            assertTrue(bytes >= 10 * 9);
+
+            for (int i = 0; i < 4; i++)
+                assertEquals("msg-" + i, tailer.readText());
+            assertEquals(6, tailer.lag());
+            assertTrue(tailer.lagBytes() < bytes);
+
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertTrue(dc.isPresent());
+                // the excerpt being read is still to be read.
+                assertEquals(6, tailer.lag());
+            }
+            assertEquals(5, tailer.lag());
+
+            for (int i = 0; i < 5; i++)
+                appender.writeText("more-" + i);
+            assertEquals(10, tailer.lag());
+
+            while (tailer.readText() != null) ;
+            assertEquals(0, tailer.lag());
+            assertEquals(0, tailer.lagBytes());
+
+            tailer.toStart();
+            assertEquals(15, tailer.lag());
+        }
+    }
+
+    @Test
+    public void alertsWhenTailerLags() {
+        final File dir = Utils.tempDir("alertsWhenTailerLags");
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .metrics(true)
+                .lagAlertThresholds(5, 0)
+                .build()) {
+            ExcerptTailer tailer = queue.createTailer("slow");
+            TailerMetrics metrics = ((SingleChronicleQueueExcerpts.StoreTailer) tailer).metrics();
+            assertNotNull(metrics);
+
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 8; i++)
+                appender.writeText("msg-" + i);
+            metrics.updateLag(Integer.MAX_VALUE);
+            assertEquals(8, metrics.getLagExcerpts());
+            assertTrue(metrics.getLagBytes() > 0);
+            assertTrue(metrics.isLagging());
+            assertEquals(1, metrics.getLagAlertCount());
+
+            for (int i = 0; i < 6; i++)
+                tailer.readText();
+            metrics.updateLag(Integer.MAX_VALUE);
+            assertEquals(2, metrics.getLagExcerpts());
+            assertFalse(metrics.isLagging());
+
+            // counted a few headers at a time, the last lag is kept until it is up to date.
+            for (int i = 0; i < 10; i++)
+                appender.writeText("more-" + i);
+            metrics.setLagThresholdExcerpts(0);
+            metrics.setLagThresholdBytes(1);
+            metrics.updateLag(3);
+            metrics.updateLag(3);
+            assertEquals(2, metrics.getLagExcerpts());
+            for (int i = 0; i < 4; i++)
+                metrics.updateLag(3);
+            assertEquals(12, metrics.getLagExcerpts());
+            assertTrue(metrics.isLagging());
+            assertEquals(2, metrics.getLagAlertCount());
+        }
+    }
+
+    @Test
+    public void lagAcrossCycles() {
+        final File dir = Utils.tempDir("lagAcrossCycles");
+        SetTimeProvider timeProvider = new SetTimeProvider();
+        long start = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(3);
+        timeProvider.currentTimeMillis(start);
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .timeProvider(timeProvider)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            int[] perDay = {3, 4, 2};
+            for (int day = 0; day < perDay.length; day++) {
+                timeProvider.currentTimeMillis(start + TimeUnit.DAYS.toMillis(day));
+                for (int i = 0; i < perDay[day]; i++)
+                    appender.writeText("day-" + day + "-" + i);
+            }
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals(9, tailer.lag());
+            long bytes = tailer.lagBytes();
+
+            // only the headers added to the last cycle are counted again.
+            appender.writeText("day-2-2");
+            assertEquals(10, tailer.lag());
+            assertTrue(tailer.lagBytes() > bytes);
+
+            for (int i = 0; i < 4; i++)
+                assertTrue(tailer.readText().startsWith("day-"));
+            assertEquals(6, tailer.lag());
+
+            while (tailer.readText() != null) ;
+            assertEquals(0, tailer.lag());
+            assertEquals(0, tailer.lagBytes());
+        }
+    }
+}
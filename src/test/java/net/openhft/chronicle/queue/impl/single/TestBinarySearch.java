@@ -111,6 +111,67 @@ public class TestBinarySearch extends ChronicleQueueTestBase {
 
     }
 
+    @Test
+    public void testFirstExcerptOfClosedCyclesIsCached() throws ParseException {
+        final SetTimeProvider stp = new SetTimeProvider();
+        long time = 0;
+        stp.currentTimeMillis(time);
+
+        final File tmpDir = getTmpDir();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(tmpDir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(stp)
+                .build()) {
+
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < MAX_NUMBER_OF_TESTED_MESSAGES; i++) {
+                try (final DocumentContext dc = appender.writingDocument()) {
+                    final MyData myData = new MyData();
+                    myData.key = i;
+                    myData.value = "some value where the key=" + String.valueOf(i);
+                    dc.wire().getValueOut().typedMarshallable(myData);
+                    time += 300;
+                    stp.currentTimeMillis(time);
+                }
+            }
+
+            final Comparator<Wire> comparator = (o1, o2) -> {
+                final long readPositionO1 = o1.bytes().readPosition();
+                final long readPositionO2 = o2.bytes().readPosition();
+                try {
+                    MyData myDataO1;
+                    MyData myDataO2;
+                    try (final DocumentContext dc = o1.readingDocument()) {
+                        myDataO1 = dc.wire().getValueIn().typedMarshallable();
+                    }
+                    try (final DocumentContext dc = o2.readingDocument()) {
+                        myDataO2 = dc.wire().getValueIn().typedMarshallable();
+                    }
+                    return Integer.compare(myDataO1.key, myDataO2.key);
+                } finally {
+                    o1.bytes().readPosition(readPositionO1);
+                    o2.bytes().readPosition(readPositionO2);
+                }
+            };
+
+            int firstCycle = queue.firstCycle();
+            Assert.assertNull(queue.cachedFirstExcerpt(firstCycle + 1));
+
+            for (int j = 0; j < MAX_NUMBER_OF_TESTED_MESSAGES; j++) {
+                Wire key = toWire(j);
+                // the second search uses the first excerpts cached by the first.
+                long index = BinarySearch.search(queue, key, comparator);
+                Assert.assertEquals(index, BinarySearch.search(queue, key, comparator));
+                key.bytes().release();
+            }
+            Assert.assertNotNull(queue.cachedFirstExcerpt(firstCycle + 1));
+
+        } finally {
+            System.gc();
+            deleteDir(tmpDir);
+        }
+    }
+
     @NotNull
     private Wire toWire(int key) {
         final MyData myData = new MyData();
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 higherfrequencytrading.com
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static net.openhft.chronicle.queue.RollCycles.TEST_DAILY;
+import static net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder.binary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeIndexTest {
+
+    private static long nanos(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    public void moveBeforeTime() {
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = binary(Utils.tempDir("moveBeforeTime"))
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .indexSpacing(4)
+                .timeProvider(timeProvider)
+                .timeIndex(true)
+                .build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 100; i++) {
+                timeProvider.currentTimeMillis(1000 + i * 10);
+                appender.writeText("msg-" + i);
+            }
+
+            ExcerptTailer tailer = queue.createTailer();
+            // the last indexed excerpt before msg-50 was written.
+            assertTrue(tailer.moveBeforeTime(nanos(1500)));
+            assertEquals("msg-48", tailer.readText());
+
+            assertTrue(tailer.moveBeforeTime(nanos(500)));
+            assertEquals("msg-0", tailer.readText());
+
+            assertTrue(tailer.moveBeforeTime(nanos(2000)));
+            assertEquals("msg-96", tailer.readText());
+
+            assertFalse(tailer.moveBeforeTime(nanos(TimeUnit.DAYS.toMillis(2))));
+        }
+    }
+
+    @Test
+    public void timeIndexIsDeletedWithItsCycle() {
+        final File dir = Utils.tempDir("timeIndexIsDeletedWithItsCycle");
+        File file;
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .timeIndex(true)
+                .build()) {
+            queue.acquireAppender().writeText("hello");
+            file = queue.fileForCycle(queue.cycle());
+        }
+        File timeIndexFile = TimeIndex.fileFor(file);
+        assertTrue(timeIndexFile.exists());
+        assertTrue(file.delete());
+
+        try (SingleChronicleQueue queue = binary(dir)
+                .testBlockSize()
+                .rollCycle(TEST_DAILY)
+                .timeIndex(true)
+                .build()) {
+            assertEquals(Integer.MIN_VALUE, queue.lastCycle());
+            assertFalse(timeIndexFile.exists());
+        }
+    }
+}